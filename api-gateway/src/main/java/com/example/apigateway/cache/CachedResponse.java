@@ -0,0 +1,42 @@
+package com.example.apigateway.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+
+import reactor.core.publisher.Mono;
+
+// A response as the upstream sent it, minus per-connection headers, ready to be replayed
+record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, Duration ttl, long storedAtNanos) {
+    // Connection-level headers; the length is set again from the stored body
+    private static final List<String> NOT_STORED = List.of(
+            HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH, HttpHeaders.DATE);
+
+    static CachedResponse of(HttpStatusCode status, HttpHeaders headers, byte[] body, Duration ttl) {
+        HttpHeaders stored = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (NOT_STORED.stream().noneMatch(name::equalsIgnoreCase)) {
+                stored.put(name, List.copyOf(values));
+            }
+        });
+        return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(stored), body, ttl, System.nanoTime());
+    }
+
+    long ageSeconds() {
+        return Duration.ofNanos(System.nanoTime() - storedAtNanos).toSeconds();
+    }
+
+    // Writes status, headers and body; extraHeaders runs last and may override stored ones
+    Mono<Void> writeTo(ServerHttpResponse response, Consumer<HttpHeaders> extraHeaders) {
+        response.setStatusCode(status);
+        HttpHeaders responseHeaders = response.getHeaders();
+        responseHeaders.putAll(headers);
+        responseHeaders.setContentLength(body.length);
+        extraHeaders.accept(responseHeaders);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+}
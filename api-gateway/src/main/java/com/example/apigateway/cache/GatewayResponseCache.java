@@ -0,0 +1,122 @@
+package com.example.apigateway.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded in-memory store of upstream GET responses for the routes in GatewayConfig that opt in
+ * through {@link #forRoute(Duration)}. Bounded by total body bytes; each entry lives for its
+ * route's TTL, or less when the upstream Cache-Control says so.
+ */
+@Component
+public class GatewayResponseCache {
+
+    private final Cache<ResponseCacheKey, CachedResponse> cache;
+    private final int maxEntryBytes;
+    // Bumped by every purge, so a response read before a purge is not stored after it
+    private final AtomicLong generation = new AtomicLong();
+
+    public GatewayResponseCache(@Value("${response-cache.max-size:16MB}") DataSize maxSize,
+                                @Value("${response-cache.max-entry-size:512KB}") DataSize maxEntrySize,
+                                MeterRegistry meterRegistry) {
+        this.maxEntryBytes = (int) maxEntrySize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((ResponseCacheKey key, CachedResponse value) -> value.body().length)
+                .expireAfter(new ExpireAfterTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.responses");
+    }
+
+    // Route filter that serves and stores GET responses for at most ttl
+    public GatewayFilter forRoute(Duration ttl) {
+        return new ResponseCacheFilter(this, ttl);
+    }
+
+    CachedResponse get(ResponseCacheKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    long generation() {
+        return generation.get();
+    }
+
+    void put(ResponseCacheKey key, CachedResponse response, long readAtGeneration) {
+        if (response.body().length > maxEntryBytes) {
+            return;
+        }
+        cache.put(key, response);
+        if (generation.get() != readAtGeneration) {
+            // A purge ran while this response was in flight and may have missed it
+            cache.invalidate(key);
+        }
+    }
+
+    int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Drops entries whose request path equals one of paths or starts with one of prefixes,
+     * whatever their query, roles or Accept header. Returns the number of entries removed.
+     */
+    public int purge(Collection<String> paths, Collection<String> prefixes) {
+        generation.incrementAndGet();
+        int purged = 0;
+        Iterator<ResponseCacheKey> keys = cache.asMap().keySet().iterator();
+        while (keys.hasNext()) {
+            String path = keys.next().path();
+            if (paths.contains(path) || prefixes.stream().anyMatch(path::startsWith)) {
+                keys.remove();
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    public long purgeAll() {
+        generation.incrementAndGet();
+        long size = cache.estimatedSize();
+        cache.invalidateAll();
+        return size;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static class ExpireAfterTtl implements Expiry<ResponseCacheKey, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(ResponseCacheKey key, CachedResponse value, long currentTime) {
+            return value.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(ResponseCacheKey key, CachedResponse value, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ResponseCacheKey key, CachedResponse value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.apigateway.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Single-flight for GETs on the routes in GatewayConfig that opt in through {@link #forRoute()}:
+ * while one request (the leader) is upstream, identical requests (same path, query, roles and
+ * Accept) wait for its response instead of sending their own. A flight ends as soon as the
+ * leader's response is read, so later requests start a new one.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final Map<ResponseCacheKey, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final int maxBodyBytes;
+    private final Counter leaders;
+    private final Counter followers;
+
+    public RequestCoalescer(@Value("${request-coalescing.max-body-size:1MB}") DataSize maxBodySize,
+                            MeterRegistry meterRegistry) {
+        this.maxBodyBytes = (int) maxBodySize.toBytes();
+        this.leaders = Counter.builder("gateway.coalescing.requests").tag("role", "leader")
+                .description("GETs sent upstream by coalescing routes")
+                .register(meterRegistry);
+        this.followers = Counter.builder("gateway.coalescing.requests").tag("role", "follower")
+                .description("GETs that joined a request already in flight")
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.collapse.ratio", this, RequestCoalescer::collapseRatio)
+                .description("Share of coalescing-route GETs answered without their own upstream call")
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.in-flight", inFlight, Map::size)
+                .description("Distinct requests currently upstream")
+                .register(meterRegistry);
+    }
+
+    public GatewayFilter forRoute() {
+        return new RequestCoalescingFilter(this);
+    }
+
+    /**
+     * Registers a new flight for key and returns null if the caller is its leader, or returns the
+     * flight already in progress. It completes with the leader's response, or empty when there is
+     * none to share, in which case the follower sends its own request.
+     */
+    Sinks.One<CachedResponse> join(ResponseCacheKey key, Sinks.One<CachedResponse> flight) {
+        Sinks.One<CachedResponse> existing = inFlight.putIfAbsent(key, flight);
+        if (existing == null) {
+            leaders.increment();
+        } else {
+            followers.increment();
+        }
+        return existing;
+    }
+
+    void land(ResponseCacheKey key, Sinks.One<CachedResponse> flight, CachedResponse response) {
+        inFlight.remove(key, flight);
+        if (response != null) {
+            flight.tryEmitValue(response);
+        } else {
+            flight.tryEmitEmpty();
+        }
+    }
+
+    int maxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    double collapseRatio() {
+        double total = leaders.count() + followers.count();
+        return total == 0 ? 0 : followers.count() / total;
+    }
+}
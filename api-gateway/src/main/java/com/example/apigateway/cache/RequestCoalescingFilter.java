@@ -0,0 +1,91 @@
+package com.example.apigateway.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Sends one of a set of identical concurrent GETs upstream and replays its response, whatever
+ * the status, to the others. Responses that set cookies or exceed request-coalescing.max-body-size
+ * are not shared; neither is anything when the leader fails or is cancelled. In those cases each
+ * waiting request is sent upstream on its own.
+ */
+class RequestCoalescingFilter implements GatewayFilter, Ordered {
+    private static final String COALESCED = "X-Coalesced";
+    private static final byte[] EMPTY = new byte[0];
+
+    private final RequestCoalescer coalescer;
+
+    RequestCoalescingFilter(RequestCoalescer coalescer) {
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        ResponseCacheKey key = ResponseCacheKey.of(exchange.getRequest());
+        Sinks.One<CachedResponse> flight = Sinks.one();
+        Sinks.One<CachedResponse> leading = coalescer.join(key, flight);
+        if (leading != null) {
+            return leading.asMono()
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(shared -> shared.isPresent()
+                            ? shared.get().writeTo(exchange.getResponse(), headers -> headers.set(COALESCED, "true"))
+                            : chain.filter(exchange));
+        }
+
+        ServerHttpResponseDecorator sharing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpHeaders headers = getHeaders();
+                if (headers.containsKey(HttpHeaders.SET_COOKIE) || headers.getContentLength() > coalescer.maxBodyBytes()) {
+                    coalescer.land(key, flight, null);
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body))
+                        .map(joined -> {
+                            byte[] bytes = new byte[joined.readableByteCount()];
+                            joined.read(bytes);
+                            DataBufferUtils.release(joined);
+                            return bytes;
+                        })
+                        .defaultIfEmpty(EMPTY)
+                        .flatMap(bytes -> {
+                            coalescer.land(key, flight, bytes.length > coalescer.maxBodyBytes() ? null
+                                    : CachedResponse.of(getStatusCode() != null ? getStatusCode() : HttpStatus.OK,
+                                            headers, bytes, Duration.ZERO));
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        });
+            }
+        };
+        // Ends the flight when nothing was shared, e.g. the upstream call failed or the client left
+        return chain.filter(exchange.mutate().response(sharing).build())
+                .doFinally(signal -> coalescer.land(key, flight, null));
+    }
+
+    @Override
+    public int getOrder() {
+        // After the response cache, so only its misses get here; before the response is written
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+}
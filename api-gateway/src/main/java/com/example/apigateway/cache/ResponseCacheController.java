@@ -0,0 +1,75 @@
+package com.example.apigateway.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.apigateway.filter.JwtAuthenticationFilter;
+import com.example.apigateway.filter.VerifiedClaimsCache.VerifiedClaims;
+
+// Purges for services whose data just changed, authorised by the shared purge token, and for admins
+@RestController
+@RequestMapping("/api/gateway/cache")
+public class ResponseCacheController {
+    private static final String PURGE_TOKEN_HEADER = "X-Cache-Purge-Token";
+
+    private final GatewayResponseCache responseCache;
+    private final JwtAuthenticationFilter authFilter;
+    private final byte[] purgeToken;
+
+    public ResponseCacheController(GatewayResponseCache responseCache, JwtAuthenticationFilter authFilter,
+                                   @Value("${response-cache.purge-token:}") String purgeToken) {
+        this.responseCache = responseCache;
+        this.authFilter = authFilter;
+        this.purgeToken = purgeToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Exact paths and path prefixes, e.g. {"paths": ["/api/inventory", "/api/inventory/p-1"]}
+    public record PurgeRequest(List<String> paths, List<String> prefixes) {
+    }
+
+    @PostMapping("/purge")
+    public ResponseEntity<Map<String, Long>> purge(
+            @RequestBody PurgeRequest request,
+            @RequestHeader(value = PURGE_TOKEN_HEADER, required = false) String token,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (!authorized(token, authorization)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        int purged = responseCache.purge(
+                request.paths() != null ? request.paths() : List.of(),
+                request.prefixes() != null ? request.prefixes() : List.of());
+        return ResponseEntity.ok(Map.of("purged", (long) purged));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Map<String, Long>> purgeAll(
+            @RequestHeader(value = PURGE_TOKEN_HEADER, required = false) String token,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (!authorized(token, authorization)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(Map.of("purged", responseCache.purgeAll()));
+    }
+
+    private boolean authorized(String token, String authorization) {
+        if (token != null && purgeToken.length > 0) {
+            return MessageDigest.isEqual(purgeToken, token.getBytes(StandardCharsets.UTF_8));
+        }
+        VerifiedClaims claims = authFilter.authenticate(authorization);
+        return claims != null && claims.roles() != null
+                && claims.roles().stream().anyMatch(role -> role.trim().equalsIgnoreCase("ADMIN"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.apigateway.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves GETs of one route from {@link GatewayResponseCache} and stores the 200s it forwards.
+ * Requests still pass JwtAuthenticationFilter first, so only authenticated callers are served and
+ * the key carries their roles. Request Cache-Control: no-store bypasses the cache and no-cache
+ * (or max-age=0) skips the lookup; responses marked no-store, no-cache or private are not stored,
+ * and s-maxage or max-age shortens the route TTL.
+ */
+class ResponseCacheFilter implements GatewayFilter, Ordered {
+    private static final String CACHE_STATUS = "X-Cache";
+
+    private final GatewayResponseCache cache;
+    private final Duration ttl;
+
+    ResponseCacheFilter(GatewayResponseCache cache, Duration ttl) {
+        this.cache = cache;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        Map<String, String> directives = directives(request.getHeaders());
+        if (directives.containsKey("no-store")) {
+            return chain.filter(exchange);
+        }
+
+        ResponseCacheKey key = ResponseCacheKey.of(request);
+        boolean revalidate = directives.containsKey("no-cache") || "0".equals(directives.get("max-age"))
+                || "no-cache".equalsIgnoreCase(request.getHeaders().getFirst(HttpHeaders.PRAGMA));
+        if (!revalidate) {
+            CachedResponse hit = cache.get(key);
+            if (hit != null) {
+                return hit.writeTo(exchange.getResponse(), headers -> {
+                    headers.set(HttpHeaders.AGE, String.valueOf(hit.ageSeconds()));
+                    headers.set(CACHE_STATUS, "HIT");
+                });
+            }
+        }
+
+        long generation = cache.generation();
+        ServerHttpResponse response = exchange.getResponse();
+        ServerHttpResponseDecorator storing = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                Duration entryTtl = storableFor(getStatusCode() == HttpStatus.OK ? getHeaders() : null);
+                if (entryTtl == null) {
+                    return super.writeWith(body);
+                }
+                getHeaders().set(CACHE_STATUS, "MISS");
+                return DataBufferUtils.join(Flux.from(body))
+                        .flatMap(joined -> {
+                            byte[] bytes = new byte[joined.readableByteCount()];
+                            joined.read(bytes);
+                            DataBufferUtils.release(joined);
+                            cache.put(key, CachedResponse.of(HttpStatus.OK, getHeaders(), bytes, entryTtl),
+                                    generation);
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        })
+                        .switchIfEmpty(Mono.defer(() -> super.writeWith(Flux.empty())));
+            }
+        };
+        return chain.filter(exchange.mutate().response(storing).build());
+    }
+
+    @Override
+    public int getOrder() {
+        // Must wrap the response before NettyWriteResponseFilter writes to it; a hit also
+        // skips the request coalescing that follows
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    // How long a response with these headers may be stored, or null if it may not be
+    private Duration storableFor(HttpHeaders headers) {
+        if (headers == null || headers.containsKey(HttpHeaders.SET_COOKIE) || headers.getVary().contains("*")) {
+            return null;
+        }
+        // Known to be too big for one entry: stream it through instead of buffering it
+        if (headers.getContentLength() > cache.maxEntryBytes()) {
+            return null;
+        }
+        Map<String, String> directives = directives(headers);
+        if (directives.containsKey("no-store") || directives.containsKey("no-cache")
+                || directives.containsKey("private")) {
+            return null;
+        }
+        // s-maxage is addressed to shared caches such as this one and wins over max-age
+        String maxAge = directives.getOrDefault("s-maxage", directives.get("max-age"));
+        Duration entryTtl = ttl;
+        if (maxAge != null) {
+            try {
+                entryTtl = Duration.ofSeconds(Math.min(Long.parseLong(maxAge), ttl.toSeconds()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return entryTtl.isZero() || entryTtl.isNegative() ? null : entryTtl;
+    }
+
+    // Cache-Control directives, lower-cased, with their argument or "" when they have none
+    private static Map<String, String> directives(HttpHeaders headers) {
+        Map<String, String> directives = new HashMap<>();
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                String[] parts = directive.trim().split("=", 2);
+                if (!parts[0].isEmpty()) {
+                    directives.put(parts[0].toLowerCase(Locale.ROOT),
+                            parts.length > 1 ? parts[1].trim().replace("\"", "") : "");
+                }
+            }
+        }
+        return directives;
+    }
+}
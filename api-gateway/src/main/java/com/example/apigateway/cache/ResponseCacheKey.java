@@ -0,0 +1,38 @@
+package com.example.apigateway.cache;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * What a cached or in-flight response may be reused for. Roles are part of the key because
+ * services decide what to return from X-User-Roles; the user id is not, so users with the same
+ * roles share entries.
+ */
+record ResponseCacheKey(String path, String query, String roles, String accept) {
+
+    // Expects the request as forwarded, i.e. after JwtAuthenticationFilter has set X-User-Roles
+    static ResponseCacheKey of(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return new ResponseCacheKey(
+                request.getPath().value(),
+                request.getURI().getRawQuery(),
+                normalizeRoles(headers.getFirst("X-User-Roles")),
+                String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT)));
+    }
+
+    // "CUSTOMER,ADMIN" and "admin, customer" grant the same access
+    private static String normalizeRoles(String roles) {
+        if (roles == null) {
+            return "";
+        }
+        return Arrays.stream(roles.split(","))
+                .map(role -> role.trim().toUpperCase())
+                .filter(role -> !role.isEmpty())
+                .sorted()
+                .distinct()
+                .collect(Collectors.joining(","));
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.apigateway.config;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.example.apigateway.cache.GatewayResponseCache;
+import com.example.apigateway.cache.RequestCoalescer;
+
 @Configuration
 public class GatewayConfig {
 
     @Bean
-    public RouteLocator routes(RouteLocatorBuilder builder) {
+    public RouteLocator routes(RouteLocatorBuilder builder, GatewayResponseCache responseCache,
+                               RequestCoalescer requestCoalescer,
+                               @Value("${response-cache.ttl.inventory:60s}") Duration inventoryTtl) {
         return builder.routes()
                 // Authentication Service
                 .route("auth-service", r -> r
@@ -41,9 +49,13 @@ public class GatewayConfig {
                         .path("/api/customers/**")
                         .uri("http://customer-service:8083"))
                 
-                // Inventory Service
+                // Inventory Service (catalog GETs are served from the response cache, and
+                // identical concurrent misses share one upstream call)
                 .route("inventory-service", r -> r
                         .path("/api/inventory/**")
+                        .filters(f -> f
+                                .filter(responseCache.forRoute(inventoryTtl))
+                                .filter(requestCoalescer.forRoute()))
                         .uri("http://inventory-service:8082"))
                 
                 .build();
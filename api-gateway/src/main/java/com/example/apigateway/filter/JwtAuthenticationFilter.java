@@ -1,5 +1,6 @@
 package com.example.apigateway.filter;
 
+import java.util.Date;
 import java.util.List;
 
 import javax.crypto.SecretKey;
@@ -7,13 +8,17 @@ import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.example.apigateway.filter.VerifiedClaimsCache.VerifiedClaims;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import reactor.core.publisher.Mono;
@@ -21,8 +26,18 @@ import reactor.core.publisher.Mono;
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
     
-    @Value("${jwt.secret:your-secret-key-change-this-in-production}")
-    private String jwtSecret;
+    private final JwtParser jwtParser;
+    private final VerifiedClaimsCache claimsCache;
+    
+    public JwtAuthenticationFilter(@Value("${jwt.secret:your-secret-key-change-this-in-production}") String jwtSecret,
+                                   VerifiedClaimsCache claimsCache) {
+        // Key and parser are immutable and thread-safe, so build them once
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.claimsCache = claimsCache;
+    }
     
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -33,87 +48,58 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             return chain.filter(exchange);
         }
         
-        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-        
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        VerifiedClaims claims = authenticate(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        if (claims == null) {
             exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
             return exchange.getResponse().setComplete();
         }
         
-        String token = authHeader.substring(7);
+        // Add user context headers to the request
+        ServerWebExchange modifiedExchange = exchange.mutate()
+                .request(exchange.getRequest().mutate()
+                        .headers(headers -> addUserHeaders(headers, claims))
+                        .build())
+                .build();
         
-        try {
-            if (!validateToken(token)) {
-                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-                return exchange.getResponse().setComplete();
-            }
-            
-            Long userId = extractUserId(token);
-            String username = extractUsername(token);
-            List<String> roles = extractRoles(token);
-            
-            // Add user context headers to the request
-            ServerWebExchange modifiedExchange = exchange.mutate()
-                    .request(exchange.getRequest().mutate()
-                            .header("X-User-Id", String.valueOf(userId))
-                            .header("X-User-Name", username)
-                            .header("X-User-Roles", String.join(",", roles))
-                            .build())
-                    .build();
-            
-            return chain.filter(modifiedExchange);
-        } catch (Exception e) {
-            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-            return exchange.getResponse().setComplete();
-        }
+        return chain.filter(modifiedExchange);
     }
     
-    private boolean validateToken(String token) {
+    // Claims of a valid "Bearer ..." header, or null if it is missing or does not verify.
+    // Also used by endpoints the gateway serves itself, which global filters do not cover.
+    public VerifiedClaims authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (SecurityException | io.jsonwebtoken.MalformedJwtException | io.jsonwebtoken.ExpiredJwtException | io.jsonwebtoken.UnsupportedJwtException | IllegalArgumentException e) {
-            return false;
+            return claimsCache.get(authHeader.substring(7), this::verify);
+        } catch (Exception e) {
+            return null;
         }
     }
     
-    private Long extractUserId(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return Long.valueOf(claims.getSubject());
-    }
-    
-    private String extractUsername(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return (String) claims.get("username");
+    // User context the services read in their HeaderAuthenticationFilter
+    public static void addUserHeaders(HttpHeaders headers, VerifiedClaims claims) {
+        headers.set("X-User-Id", String.valueOf(claims.userId()));
+        headers.set("X-User-Name", claims.username());
+        headers.set("X-User-Roles", String.join(",", claims.roles()));
     }
     
+    // Single verify per token; the cache only ever holds claims whose signature checked out
     @SuppressWarnings("unchecked")
-    private List<String> extractRoles(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return (List<String>) claims.get("roles");
+    private VerifiedClaims verify(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        return new VerifiedClaims(
+                Long.valueOf(claims.getSubject()),
+                (String) claims.get("username"),
+                (List<String>) claims.get("roles"),
+                expiration != null ? expiration.getTime() : null);
     }
     
     @Override
     public int getOrder() {
-        return -1;  // Run this filter first
+        // Run this filter first, ahead of route filters that wrap the response (response cache,
+        // request coalescing): both key on the X-User-Roles set here
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 3;
     }
 }
@@ -0,0 +1,100 @@
+package com.example.apigateway.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of already verified JWT claims, keyed by a SHA-256 digest of the token.
+ * Each entry expires at the token's own {@code exp}, so an expired token is never served
+ * from the cache and goes back through full signature verification (which rejects it).
+ */
+@Component
+public class VerifiedClaimsCache {
+
+    private final Cache<String, VerifiedClaims> cache;
+    private final Duration maxTtl;
+
+    public VerifiedClaimsCache(@Value("${jwt.cache.max-entries:10000}") long maxEntries,
+                               @Value("${jwt.cache.max-ttl:PT15M}") Duration maxTtl,
+                               MeterRegistry meterRegistry) {
+        this.maxTtl = maxTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.claims");
+    }
+
+    /**
+     * Returns the cached claims for the token, or runs the verifier once and caches its result.
+     * Exceptions thrown by the verifier are propagated and nothing is cached for that token.
+     */
+    public VerifiedClaims get(String token, Function<String, VerifiedClaims> verifier) {
+        return cache.get(digest(token), key -> verifier.apply(token));
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Evict each entry at the token's exp claim, capped by jwt.cache.max-ttl
+    private class ExpireAtTokenExpiry implements Expiry<String, VerifiedClaims> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedClaims value, long currentTime) {
+            if (value.expiresAtMillis() == null) {
+                return maxTtl.toNanos();
+            }
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return Math.max(0, Math.min(Duration.ofMillis(remainingMillis).toNanos(), maxTtl.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedClaims value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedClaims value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    // Claims the gateway forwards downstream, extracted once per token
+    public record VerifiedClaims(Long userId, String username, List<String> roles, Long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.apigateway.view;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * GET /api/views/orders/{id}: the order with its payment, shipment and notifications, each in the
+ * owning service's compact JSON form. A section is null when the service has nothing for the
+ * order, and is also listed in {@code unavailable} when the service failed or ran out of time.
+ */
+public record OrderView(JsonNode order,
+                        JsonNode payment,
+                        JsonNode shipment,
+                        JsonNode notifications,
+                        List<String> unavailable) {
+}
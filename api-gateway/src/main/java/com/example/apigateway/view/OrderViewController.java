@@ -0,0 +1,62 @@
+package com.example.apigateway.view;
+
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.example.apigateway.filter.JwtAuthenticationFilter;
+import com.example.apigateway.filter.VerifiedClaimsCache.VerifiedClaims;
+
+import reactor.core.publisher.Mono;
+
+// Served by the gateway itself rather than routed, so the JWT check is done here
+@RestController
+@RequestMapping("/api/views")
+public class OrderViewController {
+    private final OrderViewService orderViewService;
+    private final JwtAuthenticationFilter authFilter;
+
+    public OrderViewController(OrderViewService orderViewService, JwtAuthenticationFilter authFilter) {
+        this.orderViewService = orderViewService;
+        this.authFilter = authFilter;
+    }
+
+    @GetMapping("/orders/{id}")
+    public Mono<ResponseEntity<OrderView>> getOrderView(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        VerifiedClaims claims = authFilter.authenticate(authorization);
+        if (claims == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        return orderViewService.getOrderView(id, headers -> JwtAuthenticationFilter.addUserHeaders(headers, claims))
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // The order itself could not be read: pass its status through, or 504 if it was too slow
+    @ExceptionHandler(WebClientResponseException.class)
+    public ResponseEntity<String> handleOrderServiceError(WebClientResponseException e) {
+        return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsString());
+    }
+
+    @ExceptionHandler(WebClientRequestException.class)
+    public ResponseEntity<String> handleOrderServiceUnreachable(WebClientRequestException e) {
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body("Order service unreachable");
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<String> handleTimeout(TimeoutException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body("Order service did not answer in time");
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.apigateway.view;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Composes an {@link OrderView} from four services called in parallel, so the view costs the
+ * slowest call rather than the sum. The order is required: without it there is no view. The
+ * other sections are optional and each has its own deadline; one that fails or is late comes
+ * back empty and marked unavailable instead of failing or delaying the whole view.
+ */
+@Service
+public class OrderViewService {
+    private static final Logger log = LoggerFactory.getLogger(OrderViewService.class);
+
+    private final WebClient webClient;
+    private final String orderServiceUrl;
+    private final String paymentServiceUrl;
+    private final String shippingServiceUrl;
+    private final String notificationServiceUrl;
+    private final Duration orderTimeout;
+    private final Duration paymentTimeout;
+    private final Duration shipmentTimeout;
+    private final Duration notificationsTimeout;
+
+    // An optional section: the body, or none, and whether it is missing because of a failure
+    private record Section(JsonNode body, boolean unavailable) {
+        static final Section NONE = new Section(null, false);
+        static final Section UNAVAILABLE = new Section(null, true);
+    }
+
+    public OrderViewService(WebClient.Builder webClientBuilder,
+                            @Value("${services.order.url:http://order-service:8081}") String orderServiceUrl,
+                            @Value("${services.payment.url:http://payment-service:8084}") String paymentServiceUrl,
+                            @Value("${services.shipping.url:http://shipping-service:8085}") String shippingServiceUrl,
+                            @Value("${services.notification.url:http://notification-service:8086}") String notificationServiceUrl,
+                            @Value("${views.orders.timeout.order:2s}") Duration orderTimeout,
+                            @Value("${views.orders.timeout.payment:800ms}") Duration paymentTimeout,
+                            @Value("${views.orders.timeout.shipment:800ms}") Duration shipmentTimeout,
+                            @Value("${views.orders.timeout.notifications:500ms}") Duration notificationsTimeout) {
+        this.webClient = webClientBuilder.build();
+        this.orderServiceUrl = orderServiceUrl;
+        this.paymentServiceUrl = paymentServiceUrl;
+        this.shippingServiceUrl = shippingServiceUrl;
+        this.notificationServiceUrl = notificationServiceUrl;
+        this.orderTimeout = orderTimeout;
+        this.paymentTimeout = paymentTimeout;
+        this.shipmentTimeout = shipmentTimeout;
+        this.notificationsTimeout = notificationsTimeout;
+    }
+
+    // Empty if the order does not exist; errors and the order deadline are propagated
+    public Mono<OrderView> getOrderView(Long orderId, Consumer<HttpHeaders> userHeaders) {
+        Mono<JsonNode> order = fetch(orderServiceUrl + "/api/orders/{id}", orderId, userHeaders)
+            .timeout(orderTimeout)
+            .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+        Mono<Section> payment = section("payment", paymentServiceUrl + "/api/payments/order/{id}",
+            orderId, userHeaders, paymentTimeout);
+        Mono<Section> shipment = section("shipment", shippingServiceUrl + "/api/shipping/order/{id}",
+            orderId, userHeaders, shipmentTimeout);
+        Mono<Section> notifications = section("notifications", notificationServiceUrl + "/api/notifications/order/{id}",
+            orderId, userHeaders, notificationsTimeout);
+
+        return Mono.zip(order, payment, shipment, notifications)
+            .map(parts -> {
+                List<String> unavailable = new ArrayList<>();
+                if (parts.getT2().unavailable()) {
+                    unavailable.add("payment");
+                }
+                if (parts.getT3().unavailable()) {
+                    unavailable.add("shipment");
+                }
+                if (parts.getT4().unavailable()) {
+                    unavailable.add("notifications");
+                }
+                return new OrderView(parts.getT1(), parts.getT2().body(), parts.getT3().body(),
+                    parts.getT4().body(), unavailable);
+            });
+    }
+
+    // A 4xx means there is nothing to show (shipping answers 400 for an order without a
+    // shipment); 5xx, connection errors and the deadline mark the section unavailable
+    private Mono<Section> section(String name, String uri, Long orderId, Consumer<HttpHeaders> userHeaders,
+                                  Duration timeout) {
+        return fetch(uri, orderId, userHeaders)
+            .map(body -> new Section(body, false))
+            .timeout(timeout)
+            .onErrorResume(WebClientResponseException.class,
+                e -> e.getStatusCode().is4xxClientError() ? Mono.just(Section.NONE) : Mono.error(e))
+            .onErrorResume(e -> {
+                log.warn("Order {} view without {}: {}", orderId, name, e.toString());
+                return Mono.just(Section.UNAVAILABLE);
+            })
+            .defaultIfEmpty(Section.NONE);
+    }
+
+    // application/json selects the services' compact representation (no _links)
+    private Mono<JsonNode> fetch(String uri, Long orderId, Consumer<HttpHeaders> userHeaders) {
+        return webClient.get()
+            .uri(uri, orderId)
+            .headers(userHeaders)
+            .accept(MediaType.APPLICATION_JSON)
+            .retrieve()
+            .bodyToMono(JsonNode.class);
+    }
+}
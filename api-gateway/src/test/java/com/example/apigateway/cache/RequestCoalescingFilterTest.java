@@ -0,0 +1,189 @@
+package com.example.apigateway.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+// The first request's upstream call is held until the test releases it, so the second one is
+// known to arrive while the first is in flight
+class RequestCoalescingFilterTest {
+    private static final int MAX_BODY_BYTES = 64;
+    private static final String BODY = "{\"id\":\"p-1\",\"quantity\":10}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(DataSize.ofBytes(MAX_BODY_BYTES), meterRegistry);
+    private final GatewayFilter filter = coalescer.forRoute();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+
+    @Test
+    void followerIsAnsweredWithTheLeadersResponse() throws Exception {
+        GatewayFilterChain upstream = upstream(HttpStatus.NOT_FOUND, BODY, headers -> headers.add("X-Upstream", "1"));
+        MockServerWebExchange leader = get();
+        MockServerWebExchange follower = get();
+
+        CompletableFuture<Void> leading = filter.filter(leader, upstream).toFuture();
+        CompletableFuture<Void> following = filter.filter(follower, upstream).toFuture();
+        release.tryEmitEmpty();
+        leading.get(5, TimeUnit.SECONDS);
+        following.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, upstreamCalls.get());
+        // Shared whatever the status
+        assertEquals(HttpStatus.NOT_FOUND, follower.getResponse().getStatusCode());
+        assertEquals(BODY, follower.getResponse().getBodyAsString().block());
+        assertEquals("1", follower.getResponse().getHeaders().getFirst("X-Upstream"));
+        assertEquals("true", follower.getResponse().getHeaders().getFirst("X-Coalesced"));
+        assertNull(leader.getResponse().getHeaders().getFirst("X-Coalesced"));
+        assertEquals(BODY, leader.getResponse().getBodyAsString().block());
+
+        assertEquals(1.0, requests("leader"));
+        assertEquals(1.0, requests("follower"));
+        assertEquals(0.5, meterRegistry.get("gateway.coalescing.collapse.ratio").gauge().value());
+        assertEquals(0.0, meterRegistry.get("gateway.coalescing.in-flight").gauge().value());
+    }
+
+    @Test
+    void requestAfterTheFlightLandedStartsANewOne() {
+        GatewayFilterChain upstream = upstream(HttpStatus.OK, BODY, headers -> { });
+        release.tryEmitEmpty();
+
+        filter.filter(get(), upstream).block();
+        filter.filter(get(), upstream).block();
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(2.0, requests("leader"));
+    }
+
+    @Test
+    void followerSendsItsOwnRequestWhenTheLeaderFails() throws Exception {
+        GatewayFilterChain upstream = exchange -> upstreamCalls.incrementAndGet() == 1
+                ? release.asMono().then(Mono.error(new IllegalStateException("connection reset")))
+                : respond(exchange, HttpStatus.OK, BODY, headers -> { });
+        MockServerWebExchange follower = get();
+
+        CompletableFuture<Void> leading = filter.filter(get(), upstream).toFuture();
+        CompletableFuture<Void> following = filter.filter(follower, upstream).toFuture();
+        release.tryEmitEmpty();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> leading.get(5, TimeUnit.SECONDS));
+        assertEquals("connection reset", failure.getCause().getMessage());
+        following.get(5, TimeUnit.SECONDS);
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(BODY, follower.getResponse().getBodyAsString().block());
+        assertNull(follower.getResponse().getHeaders().getFirst("X-Coalesced"));
+    }
+
+    @Test
+    void followerSendsItsOwnRequestWhenTheLeaderIsCancelled() throws Exception {
+        GatewayFilterChain upstream = upstream(HttpStatus.OK, BODY, headers -> { });
+        MockServerWebExchange follower = get();
+
+        Disposable leading = filter.filter(get(), upstream).subscribe();
+        CompletableFuture<Void> following = filter.filter(follower, upstream).toFuture();
+        // The leader's client goes away before its response arrives
+        leading.dispose();
+
+        following.get(5, TimeUnit.SECONDS);
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(BODY, follower.getResponse().getBodyAsString().block());
+        assertEquals(0.0, meterRegistry.get("gateway.coalescing.in-flight").gauge().value());
+    }
+
+    @Test
+    void bodiesOverTheLimitAreNotShared() throws Exception {
+        String large = "x".repeat(MAX_BODY_BYTES + 1);
+        assertEachFollowerGoesUpstream(upstream(HttpStatus.OK, large, headers -> { }), large);
+    }
+
+    @Test
+    void bodiesDeclaredOverTheLimitAreNotShared() throws Exception {
+        String large = "x".repeat(MAX_BODY_BYTES + 1);
+        assertEachFollowerGoesUpstream(
+                upstream(HttpStatus.OK, large, headers -> headers.setContentLength(large.length())), large);
+    }
+
+    @Test
+    void responsesThatSetCookiesAreNotShared() throws Exception {
+        assertEachFollowerGoesUpstream(
+                upstream(HttpStatus.OK, BODY, headers -> headers.add(HttpHeaders.SET_COOKIE, "session=abc")), BODY);
+    }
+
+    @Test
+    void onlyIdenticalGetsAreCoalesced() {
+        GatewayFilterChain upstream = upstream(HttpStatus.OK, BODY, headers -> { });
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/api/inventory/p-1")), upstream);
+        filter.filter(get(), upstream);
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/inventory/p-1")
+                .header("X-User-Roles", "CUSTOMER")), upstream);
+
+        assertEquals(2.0, requests("leader"));
+        assertEquals(0.0, requests("follower"));
+    }
+
+    private void assertEachFollowerGoesUpstream(GatewayFilterChain upstream, String body) throws Exception {
+        MockServerWebExchange leader = get();
+        MockServerWebExchange follower = get();
+
+        CompletableFuture<Void> leading = filter.filter(leader, upstream).toFuture();
+        CompletableFuture<Void> following = filter.filter(follower, upstream).toFuture();
+        release.tryEmitEmpty();
+        leading.get(5, TimeUnit.SECONDS);
+        following.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(body, leader.getResponse().getBodyAsString().block());
+        assertEquals(body, follower.getResponse().getBodyAsString().block());
+        assertNull(follower.getResponse().getHeaders().getFirst("X-Coalesced"));
+    }
+
+    private double requests(String role) {
+        return meterRegistry.get("gateway.coalescing.requests").tag("role", role).counter().count();
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/inventory/p-1")
+                .header("X-User-Roles", "ADMIN"));
+    }
+
+    // Only the first call waits for release; later ones answer at once
+    private GatewayFilterChain upstream(HttpStatus status, String body, Consumer<HttpHeaders> headers) {
+        return exchange -> {
+            Mono<Void> held = upstreamCalls.incrementAndGet() == 1 ? release.asMono() : Mono.empty();
+            return held.then(Mono.defer(() -> respond(exchange, status, body, headers)));
+        };
+    }
+
+    private static Mono<Void> respond(ServerWebExchange exchange, HttpStatus status, String body,
+                                      Consumer<HttpHeaders> headers) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        headers.accept(response.getHeaders());
+        return response.writeWith(Mono.fromSupplier(
+                () -> response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.apigateway.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+// Drives the filter with mock exchanges and a stub upstream that counts the requests it gets
+class ResponseCacheFilterTest {
+    private static final Duration ROUTE_TTL = Duration.ofSeconds(60);
+    private static final String BODY = "{\"id\":\"p-1\",\"quantity\":10}";
+
+    private final GatewayResponseCache cache = new GatewayResponseCache(
+            DataSize.ofMegabytes(1), DataSize.ofKilobytes(1), new SimpleMeterRegistry());
+    private final ResponseCacheFilter filter = new ResponseCacheFilter(cache, ROUTE_TTL);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void okResponseIsStoredAndServedFromTheCache() {
+        GatewayFilterChain upstream = upstream(BODY, headers -> { });
+
+        MockServerWebExchange miss = get("ADMIN");
+        filter.filter(miss, upstream).block();
+        MockServerWebExchange hit = get("ADMIN");
+        filter.filter(hit, upstream).block();
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("MISS", miss.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", hit.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(HttpStatus.OK, hit.getResponse().getStatusCode());
+        assertEquals(BODY, hit.getResponse().getBodyAsString().block());
+        assertEquals(BODY.length(), hit.getResponse().getHeaders().getContentLength());
+    }
+
+    @Test
+    void sMaxageWinsOverMaxAgeAndIsCappedByTheRouteTtl() {
+        filter.filter(get("ADMIN"), upstream(BODY,
+                headers -> headers.setCacheControl("public, max-age=300, s-maxage=5"))).block();
+        assertEquals(Duration.ofSeconds(5), stored("ADMIN").ttl());
+
+        cache.purgeAll();
+        filter.filter(get("ADMIN"), upstream(BODY, headers -> headers.setCacheControl("max-age=600"))).block();
+        assertEquals(ROUTE_TTL, stored("ADMIN").ttl());
+
+        cache.purgeAll();
+        filter.filter(get("ADMIN"), upstream(BODY, headers -> headers.setCacheControl("S-MaxAge=\"7\""))).block();
+        assertEquals(Duration.ofSeconds(7), stored("ADMIN").ttl());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "no-store", "private", "no-cache", "max-age=0", "s-maxage=0, max-age=60", "max-age=soon" })
+    void responsesTheUpstreamMarksUncacheableAreNotStored(String cacheControl) {
+        GatewayFilterChain upstream = upstream(BODY, headers -> headers.setCacheControl(cacheControl));
+
+        filter.filter(get("ADMIN"), upstream).block();
+        MockServerWebExchange second = get("ADMIN");
+        filter.filter(second, upstream).block();
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0, cache.size());
+        assertEquals(BODY, second.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void responsesThatSetCookiesAreNotStored() {
+        filter.filter(get("ADMIN"), upstream(BODY, headers -> headers.add(HttpHeaders.SET_COOKIE, "session=abc"))).block();
+
+        assertNull(stored("ADMIN"));
+    }
+
+    @Test
+    void responsesOverTheEntryLimitAreNotStored() {
+        String large = "x".repeat((int) DataSize.ofKilobytes(2).toBytes());
+
+        MockServerWebExchange declared = get("ADMIN");
+        filter.filter(declared, upstream(large, headers -> headers.setContentLength(large.length()))).block();
+        assertEquals(large, declared.getResponse().getBodyAsString().block());
+        assertNull(stored("ADMIN"));
+
+        // Without a Content-Length it is only known to be too big once read
+        filter.filter(get("ADMIN"), upstream(large, headers -> { })).block();
+        assertNull(stored("ADMIN"));
+    }
+
+    @Test
+    void requestNoStoreBypassesTheCacheAndNoCacheRevalidates() {
+        GatewayFilterChain upstream = upstream(BODY, headers -> { });
+        filter.filter(get("ADMIN", HttpHeaders.CACHE_CONTROL, "no-store"), upstream).block();
+        assertNull(stored("ADMIN"));
+
+        filter.filter(get("ADMIN"), upstream).block();
+        MockServerWebExchange revalidated = get("ADMIN", HttpHeaders.CACHE_CONTROL, "no-cache");
+        filter.filter(revalidated, upstream).block();
+
+        assertEquals(3, upstreamCalls.get());
+        assertEquals("MISS", revalidated.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void responseReadWhileAPurgeRunsIsNotStored() {
+        // The purge lands between the request going upstream and its response being stored
+        GatewayFilterChain upstream = exchange -> {
+            cache.purge(List.of("/api/inventory/p-1"), List.of());
+            return upstream(BODY, headers -> { }).filter(exchange);
+        };
+
+        MockServerWebExchange exchange = get("ADMIN");
+        filter.filter(exchange, upstream).block();
+
+        assertEquals(BODY, exchange.getResponse().getBodyAsString().block());
+        assertNull(stored("ADMIN"));
+    }
+
+    @Test
+    void putAfterAPurgeFromAnEarlierGenerationIsDropped() {
+        ResponseCacheKey key = ResponseCacheKey.of(get("ADMIN").getRequest());
+        CachedResponse response = CachedResponse.of(HttpStatus.OK, new HttpHeaders(),
+                BODY.getBytes(StandardCharsets.UTF_8), ROUTE_TTL);
+
+        long readAt = cache.generation();
+        cache.purgeAll();
+        cache.put(key, response, readAt);
+        assertNull(cache.get(key));
+
+        cache.put(key, response, cache.generation());
+        assertNotNull(cache.get(key));
+    }
+
+    @Test
+    void purgeDropsMatchingPathsWhateverTheirRoles() {
+        GatewayFilterChain upstream = upstream(BODY, headers -> { });
+        filter.filter(get("ADMIN"), upstream).block();
+        filter.filter(get("CUSTOMER"), upstream).block();
+
+        assertEquals(2, cache.purge(List.of(), List.of("/api/inventory")));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void rolesAreNormalisedInTheKey() {
+        ResponseCacheKey key = ResponseCacheKey.of(get("CUSTOMER,ADMIN").getRequest());
+
+        assertEquals(key, ResponseCacheKey.of(get(" admin, customer ,admin").getRequest()));
+        assertNotEquals(key, ResponseCacheKey.of(get("CUSTOMER").getRequest()));
+
+        GatewayFilterChain upstream = upstream(BODY, headers -> { });
+        filter.filter(get("CUSTOMER,ADMIN"), upstream).block();
+        MockServerWebExchange sameRoles = get("admin,customer");
+        filter.filter(sameRoles, upstream).block();
+        MockServerWebExchange otherRoles = get("customer");
+        filter.filter(otherRoles, upstream).block();
+
+        assertEquals("HIT", sameRoles.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("MISS", otherRoles.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    private CachedResponse stored(String roles) {
+        return cache.get(ResponseCacheKey.of(get(roles).getRequest()));
+    }
+
+    private static MockServerWebExchange get(String roles, String... header) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/inventory/p-1")
+                .header("X-User-Roles", roles);
+        if (header.length == 2) {
+            request.header(header[0], header[1]);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private GatewayFilterChain upstream(String body, Consumer<HttpHeaders> headers) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            headers.accept(response.getHeaders());
+            return response.writeWith(Mono.fromSupplier(
+                    () -> response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+}
@@ -1,7 +1,11 @@
 package mcs.config;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,6 +21,13 @@ import jakarta.servlet.http.HttpServletResponse;
 
 @Component
 public class HeaderAuthenticationFilter extends OncePerRequestFilter {
+    private static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
+    private final byte[] serviceToken;
+
+    public HeaderAuthenticationFilter(@Value("${customers.service-token:}") String serviceToken) {
+        this.serviceToken = serviceToken.getBytes(StandardCharsets.UTF_8);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -36,11 +47,20 @@ public class HeaderAuthenticationFilter extends OncePerRequestFilter {
             
             // Set in security context
             SecurityContextHolder.getContext().setAuthentication(authentication);
+        } else if (isService(request.getHeader(SERVICE_TOKEN_HEADER))) {
+            // Another service calling on its own behalf, e.g. order-service loading known ids
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "service", null, List.of(new SimpleGrantedAuthority("ROLE_SERVICE"))));
         }
         
         filterChain.doFilter(request, response);
     }
 
+    private boolean isService(String token) {
+        return token != null && serviceToken.length > 0
+            && MessageDigest.isEqual(serviceToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+
     private java.util.Collection<GrantedAuthority> parseRoles(String rolesHeader) {
         java.util.Collection<GrantedAuthority> authorities = new java.util.ArrayList<>();
         if (StringUtils.hasText(rolesHeader)) {
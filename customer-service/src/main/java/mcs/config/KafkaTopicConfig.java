@@ -0,0 +1,26 @@
+package mcs.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+    public static final String CUSTOMER_EVENTS_TOPIC = "customer-events";
+    
+    @Value("${kafka.topics.customer-events.partitions:3}")
+    private int partitions;
+    
+    @Value("${kafka.topics.customer-events.replicas:1}")
+    private int replicas;
+    
+    @Bean
+    public NewTopic customerEventsTopic() {
+        return TopicBuilder.name(CUSTOMER_EVENTS_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+}
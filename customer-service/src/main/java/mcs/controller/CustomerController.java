@@ -5,9 +5,9 @@ import java.util.stream.Collectors;
 
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import org.springframework.hateoas.Link;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,7 +18,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import mcs.model.Customer;
 import mcs.service.CustomerService;
@@ -46,20 +48,45 @@ public class CustomerController {
         return ResponseEntity.ok(toModel(customer));
     }
     
+    // Existence check without a body: no entity load, links or serialization
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER') or hasRole('SERVICE')")
+    public ResponseEntity<Void> customerExists(@PathVariable Long id) {
+        return customerService.customerExists(id)
+            ? ResponseEntity.ok().build()
+            : ResponseEntity.notFound().build();
+    }
+    
+    // Bitset in java.util.BitSet byte order: bit i (byte i / 8, bit i % 8) is set when ids[i]
+    // exists; trailing bytes that would be all zero are omitted
+    @PostMapping(value = "/exists", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER') or hasRole('SERVICE')")
+    public ResponseEntity<byte[]> customersExist(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(customerService.findExistingCustomers(ids).toByteArray());
+    }
+    
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<CollectionModel<EntityModel<Customer>>> getAllCustomers() {
+        String base = baseUri();
         List<EntityModel<Customer>> customers = customerService.getAllCustomers()
             .stream()
-            .map(this::toModel)
+            .map(customer -> toModel(customer, base))
             .collect(Collectors.toList());
         
         CollectionModel<EntityModel<Customer>> collectionModel = CollectionModel.of(customers);
-        collectionModel.add(linkTo(methodOn(CustomerController.class).getAllCustomers()).withSelfRel());
+        collectionModel.add(Link.of(base + "/api/customers").withSelfRel());
         
         return ResponseEntity.ok(collectionModel);
     }
     
+    // Every customer id, for callers that keep a local membership filter
+    @GetMapping("/ids")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SERVICE')")
+    public ResponseEntity<List<Long>> getAllCustomerIds() {
+        return ResponseEntity.ok(customerService.getAllCustomerIds());
+    }
+    
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<EntityModel<Customer>> updateCustomer(@PathVariable Long id, @RequestBody Customer customer) {
@@ -75,23 +102,34 @@ public class CustomerController {
     }
     
     private EntityModel<Customer> toModel(Customer customer) {
+        return toModel(customer, baseUri());
+    }
+    
+    private EntityModel<Customer> toModel(Customer customer, String baseUri) {
         EntityModel<Customer> model = EntityModel.of(customer);
+        String self = baseUri + "/api/customers/" + customer.getId();
         
-        model.add(linkTo(methodOn(CustomerController.class).getCustomer(customer.getId())).withSelfRel());
-        model.add(linkTo(methodOn(CustomerController.class).getAllCustomers()).withRel("customers"));
-        model.add(linkTo(methodOn(CustomerController.class).updateCustomer(customer.getId(), null))
-            .withRel("update"));
-        model.add(linkTo(methodOn(CustomerController.class).deleteCustomer(customer.getId()))
-            .withRel("delete"));
+        model.add(Link.of(self).withSelfRel());
+        model.add(Link.of(baseUri + "/api/customers", "customers"));
+        model.add(Link.of(self, "update"));
+        model.add(Link.of(self, "delete"));
         
         // Link to customer's orders
-        model.add(linkTo(methodOn(CustomerController.class).getCustomer(customer.getId()))
-            .slash("orders")
-            .withRel("orders"));
+        model.add(Link.of(self + "/orders", "orders"));
         
         return model;
     }
     
+    // The only per-request part of a link; a list response computes it once for all its items
+    private static String baseUri() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+    
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleException(RuntimeException e) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -1,9 +1,20 @@
 package mcs.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import mcs.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    
+    // Ids only, served from the primary key index without loading the rows
+    @Query("SELECT c.id FROM Customer c")
+    List<Long> findAllIds();
+    
+    @Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
@@ -1,22 +1,39 @@
 package mcs.service;
 
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import mcs.config.KafkaTopicConfig;
 import mcs.model.Customer;
 import mcs.repository.CustomerRepository;
 
 @Service
 public class CustomerService {
+    private static final Logger log = LoggerFactory.getLogger(CustomerService.class);
     private final CustomerRepository customerRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final int maxExistsIds;
     
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository,
+                           KafkaTemplate<String, String> kafkaTemplate,
+                           @Value("${customers.exists.max-ids:1000}") int maxExistsIds) {
         this.customerRepository = customerRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.maxExistsIds = maxExistsIds;
     }
     
     public Customer createCustomer(Customer customer) {
-        return customerRepository.save(customer);
+        Customer created = customerRepository.save(customer);
+        publish(created.getId(), "CREATED");
+        return created;
     }
     
     public Customer getCustomer(Long id) {
@@ -24,10 +41,37 @@ public class CustomerService {
             .orElseThrow(() -> new RuntimeException("Customer not found : " + id));
     }
     
+    // Primary key probe only; the row is never loaded
+    public boolean customerExists(Long id) {
+        return customerRepository.existsById(id);
+    }
+    
+    // Bit i is set when ids[i] exists, so the answer lines up with the request order
+    public BitSet findExistingCustomers(List<Long> ids) {
+        if (ids.size() > maxExistsIds) {
+            throw new IllegalArgumentException("At most " + maxExistsIds + " ids per request, got " + ids.size());
+        }
+        BitSet existing = new BitSet(ids.size());
+        if (ids.isEmpty()) {
+            return existing;
+        }
+        Set<Long> found = new HashSet<>(customerRepository.findExistingIds(new HashSet<>(ids)));
+        for (int i = 0; i < ids.size(); i++) {
+            if (found.contains(ids.get(i))) {
+                existing.set(i);
+            }
+        }
+        return existing;
+    }
+    
     public List<Customer> getAllCustomers() {
         return customerRepository.findAll();
     }
     
+    public List<Long> getAllCustomerIds() {
+        return customerRepository.findAllIds();
+    }
+    
     public Customer updateCustomer(Long id, Customer customer) {
         Customer existing = getCustomer(id);
         existing.setFirstName(customer.getFirstName());
@@ -38,5 +82,17 @@ public class CustomerService {
     
     public void deleteCustomer(Long id) {
         customerRepository.deleteById(id);
+        publish(id, "DELETED");
+    }
+    
+    // Lets other services drop cached existence checks; the row is already committed, and a
+    // failed send only leaves those caches stale until their entries expire
+    private void publish(Long id, String type) {
+        kafkaTemplate.send(KafkaTopicConfig.CUSTOMER_EVENTS_TOPIC, id.toString(), type)
+            .whenComplete((result, e) -> {
+                if (e != null) {
+                    log.warn("Could not publish {} event for customer {}: {}", type, id, e.getMessage());
+                }
+            });
     }
 }
\ No newline at end of file
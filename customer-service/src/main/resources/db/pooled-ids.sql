@@ -0,0 +1,4 @@
+-- customers.id used to be AUTO_INCREMENT; ids now come from customers_seq, the table Hibernate uses in
+-- place of a sequence on MySQL (pooled, 50 per call). Moves it past every id already in the
+-- table. Runs after Hibernate's schema update on every start and only ever moves it forward.
+UPDATE customers_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 100 FROM customers));
@@ -0,0 +1,69 @@
+package mcs.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class HeaderAuthenticationFilterTest {
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void serviceTokenAuthenticatesAsService() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/ids");
+        request.addHeader("X-Service-Token", "s3cret");
+
+        Authentication authentication = authenticate(new HeaderAuthenticationFilter("s3cret"), request);
+
+        assertEquals(List.of("ROLE_SERVICE"), roles(authentication));
+    }
+
+    @Test
+    void wrongOrUnconfiguredTokenAuthenticatesNothing() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/ids");
+        request.addHeader("X-Service-Token", "guess");
+        assertNull(authenticate(new HeaderAuthenticationFilter("s3cret"), request));
+
+        MockHttpServletRequest empty = new MockHttpServletRequest("GET", "/api/customers/ids");
+        empty.addHeader("X-Service-Token", "");
+        assertNull(authenticate(new HeaderAuthenticationFilter(""), empty));
+    }
+
+    @Test
+    void userHeadersTakePrecedenceOverTheServiceToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/ids");
+        request.addHeader("X-User-Id", "7");
+        request.addHeader("X-User-Name", "ada");
+        request.addHeader("X-User-Roles", "customer");
+        request.addHeader("X-Service-Token", "s3cret");
+
+        Authentication authentication = authenticate(new HeaderAuthenticationFilter("s3cret"), request);
+
+        assertEquals(List.of("ROLE_CUSTOMER"), roles(authentication));
+    }
+
+    private static Authentication authenticate(HeaderAuthenticationFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(),
+            (req, res) -> seen.set(SecurityContextHolder.getContext().getAuthentication()));
+        return seen.get();
+    }
+
+    private static List<String> roles(Authentication authentication) {
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+}
@@ -0,0 +1,139 @@
+package mcs.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import mcs.model.Customer;
+import mcs.repository.CustomerRepository;
+import mcs.service.CustomerService;
+
+// Existence checks through the full MVC stack: GET with HAL links vs HEAD vs one batched POST.
+// The repository is stubbed, so the numbers show web-layer cost only. The timing comparison is
+// wall-clock and only runs on request: mvn test -Dtest=CustomerExistenceBenchmarkTest -Dcustomers.benchmark=true
+class CustomerExistenceBenchmarkTest {
+    private static final int CUSTOMERS = 100;
+    private static final int ROUNDS = 20;
+
+    private final CustomerRepository repository = mock(CustomerRepository.class);
+    private final MockMvc mvc;
+
+    @SuppressWarnings("unchecked")
+    CustomerExistenceBenchmarkTest() {
+        // Even ids exist
+        when(repository.findById(anyLong())).thenAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            return id % 2 == 0
+                ? Optional.of(new Customer(id, "Ada", "Lovelace", "ada" + id + "@example.com", null, null))
+                : Optional.empty();
+        });
+        when(repository.existsById(anyLong())).thenAnswer(invocation -> invocation.<Long>getArgument(0) % 2 == 0);
+        when(repository.findExistingIds(any())).thenAnswer(invocation ->
+            invocation.<Collection<Long>>getArgument(0).stream().filter(id -> id % 2 == 0).toList());
+        CustomerService service = new CustomerService(repository, mock(KafkaTemplate.class), 1000);
+        mvc = MockMvcBuilders.standaloneSetup(new CustomerController(service)).build();
+    }
+
+    @Test
+    void headAnswersWithoutABody() throws Exception {
+        var found = mvc.perform(head("/api/customers/2")).andReturn().getResponse();
+        assertEquals(200, found.getStatus());
+        assertEquals(0, found.getContentAsByteArray().length);
+        assertEquals(404, mvc.perform(head("/api/customers/3")).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void batchReturnsOneBitPerIdInRequestOrder() throws Exception {
+        byte[] bits = mvc.perform(post("/api/customers/exists")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[3, 4, 5, 6, 4]"))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        BitSet expected = new BitSet();
+        expected.set(1);
+        expected.set(3);
+        expected.set(4);
+        assertArrayEquals(expected.toByteArray(), bits);
+    }
+
+    @Test
+    void oversizedBatchIsRejected() throws Exception {
+        String ids = LongStream.range(0, 1001).mapToObj(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+        int status = mvc.perform(post("/api/customers/exists")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ids))
+            .andReturn().getResponse().getStatus();
+        assertEquals(400, status);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "customers.benchmark", matches = "true")
+    void headAndBatchAreCheaperThanGet() throws Exception {
+        String batch = LongStream.rangeClosed(1, CUSTOMERS).mapToObj(String::valueOf)
+            .collect(Collectors.joining(",", "[", "]"));
+        // Warm-up
+        for (int i = 0; i < 5; i++) {
+            runGets();
+            runHeads();
+            runBatch(batch);
+        }
+
+        long getNanos = 0;
+        long headNanos = 0;
+        long batchNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            runGets();
+            getNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            runHeads();
+            headNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            runBatch(batch);
+            batchNanos += System.nanoTime() - start;
+        }
+        System.out.printf("%d existence checks: GET %dus | HEAD %dus | one POST /exists %dus%n", CUSTOMERS,
+            getNanos / ROUNDS / 1000, headNanos / ROUNDS / 1000, batchNanos / ROUNDS / 1000);
+
+        assertTrue(headNanos < getNanos, "HEAD " + headNanos + "ns vs GET " + getNanos + "ns");
+        assertTrue(batchNanos * 10 < getNanos, "batch " + batchNanos + "ns vs GET " + getNanos + "ns");
+    }
+
+    private void runGets() throws Exception {
+        for (long id = 1; id <= CUSTOMERS; id++) {
+            mvc.perform(get("/api/customers/{id}", id)).andReturn();
+        }
+    }
+
+    private void runHeads() throws Exception {
+        for (long id = 1; id <= CUSTOMERS; id++) {
+            mvc.perform(head("/api/customers/{id}", id)).andReturn();
+        }
+    }
+
+    private void runBatch(String ids) throws Exception {
+        mvc.perform(post("/api/customers/exists").contentType(MediaType.APPLICATION_JSON).content(ids)).andReturn();
+    }
+}
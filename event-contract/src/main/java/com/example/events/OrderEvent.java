@@ -1,88 +1,108 @@
-package mns.events;
+package com.example.events;
 
 import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+/**
+ * Order lifecycle event published on order-created, and by payment-service and shipping-service on
+ * payment-completed and shipment-updated, where only orderId and status (theirs, not the order's)
+ * are meaningful. Shared by the producers and every consumer so the fields cannot drift apart;
+ * {@link #SCHEMA_VERSION} is written into the binary encoding.
+ * New fields are only ever appended, which keeps older readers able to decode newer events.
+ */
 public class OrderEvent {
+    public static final int SCHEMA_VERSION = 1;
+
     @JsonProperty("orderId")
     private Long orderId;
-    
+
     @JsonProperty("customerId")
     private Long customerId;
-    
+
     @JsonProperty("productId")
     private String productId;
-    
+
     @JsonProperty("quantity")
     private Integer quantity;
-    
+
     @JsonProperty("totalAmount")
     private Double totalAmount;
-    
+
     @JsonProperty("status")
     private String status;
-    
+
     @JsonProperty("timestamp")
     private LocalDateTime timestamp;
-    
+
     // Default constructor
     public OrderEvent() {}
-    
+
+    public OrderEvent(Long orderId, Long customerId, String productId,
+                     Integer quantity, Double totalAmount, String status) {
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.totalAmount = totalAmount;
+        this.status = status;
+        this.timestamp = LocalDateTime.now();
+    }
+
     // Getters and Setters
     public Long getOrderId() {
         return orderId;
     }
-    
+
     public void setOrderId(Long orderId) {
         this.orderId = orderId;
     }
-    
+
     public Long getCustomerId() {
         return customerId;
     }
-    
+
     public void setCustomerId(Long customerId) {
         this.customerId = customerId;
     }
-    
+
     public String getProductId() {
         return productId;
     }
-    
+
     public void setProductId(String productId) {
         this.productId = productId;
     }
-    
+
     public Integer getQuantity() {
         return quantity;
     }
-    
+
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
     }
-    
+
     public Double getTotalAmount() {
         return totalAmount;
     }
-    
+
     public void setTotalAmount(Double totalAmount) {
         this.totalAmount = totalAmount;
     }
-    
+
     public String getStatus() {
         return status;
     }
-    
+
     public void setStatus(String status) {
         this.status = status;
     }
-    
+
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
-    
+
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package com.example.events;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Hand-written binary encoding of {@link OrderEvent}, with no reflection and no intermediate tree.
+ *
+ * <pre>
+ * magic (1) | schema version (1) | presence bits (1) | present fields in declaration order
+ * </pre>
+ *
+ * Integers are zig-zag varints, the amount is an 8-byte double, strings are a varint length plus
+ * UTF-8, and the timestamp is epoch seconds (UTC) plus nanos. The magic byte can never start a
+ * JSON document, which is how the deserializer tells the two formats apart. Decoders ignore any
+ * bytes after the fields they know, so a version 1 reader can consume later versions.
+ */
+public final class OrderEventBinaryCodec {
+    public static final byte MAGIC = (byte) 0xB1;
+
+    private static final int ORDER_ID = 1;
+    private static final int CUSTOMER_ID = 1 << 1;
+    private static final int PRODUCT_ID = 1 << 2;
+    private static final int QUANTITY = 1 << 3;
+    private static final int TOTAL_AMOUNT = 1 << 4;
+    private static final int STATUS = 1 << 5;
+    private static final int TIMESTAMP = 1 << 6;
+
+    private OrderEventBinaryCodec() {}
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(OrderEvent event) {
+        byte[] productId = utf8(event.getProductId());
+        byte[] status = utf8(event.getStatus());
+
+        int presence = 0;
+        if (event.getOrderId() != null) presence |= ORDER_ID;
+        if (event.getCustomerId() != null) presence |= CUSTOMER_ID;
+        if (productId != null) presence |= PRODUCT_ID;
+        if (event.getQuantity() != null) presence |= QUANTITY;
+        if (event.getTotalAmount() != null) presence |= TOTAL_AMOUNT;
+        if (status != null) presence |= STATUS;
+        if (event.getTimestamp() != null) presence |= TIMESTAMP;
+
+        // Upper bound: header + two varlongs + varint + double + two strings + timestamp
+        Writer out = new Writer(3 + 10 + 10 + 5 + 8 + 10 + 5
+            + (productId == null ? 0 : 5 + productId.length)
+            + (status == null ? 0 : 5 + status.length));
+        out.writeByte(MAGIC);
+        out.writeByte(OrderEvent.SCHEMA_VERSION);
+        out.writeByte(presence);
+        if (event.getOrderId() != null) out.writeVarLong(event.getOrderId());
+        if (event.getCustomerId() != null) out.writeVarLong(event.getCustomerId());
+        if (productId != null) out.writeBytes(productId);
+        if (event.getQuantity() != null) out.writeVarLong(event.getQuantity());
+        if (event.getTotalAmount() != null) out.writeDouble(event.getTotalAmount());
+        if (status != null) out.writeBytes(status);
+        if (event.getTimestamp() != null) {
+            out.writeVarLong(event.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            out.writeVarLong(event.getTimestamp().getNano());
+        }
+        return out.toByteArray();
+    }
+
+    public static OrderEvent decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new IllegalArgumentException("Not a binary order event");
+        }
+        Reader in = new Reader(data, 1);
+        int version = in.readByte();
+        if (version < 1) {
+            throw new IllegalArgumentException("Unsupported order event schema version: " + version);
+        }
+        int presence = in.readByte();
+
+        OrderEvent event = new OrderEvent();
+        if ((presence & ORDER_ID) != 0) event.setOrderId(in.readVarLong());
+        if ((presence & CUSTOMER_ID) != 0) event.setCustomerId(in.readVarLong());
+        if ((presence & PRODUCT_ID) != 0) event.setProductId(in.readString());
+        if ((presence & QUANTITY) != 0) event.setQuantity((int) in.readVarLong());
+        if ((presence & TOTAL_AMOUNT) != 0) event.setTotalAmount(in.readDouble());
+        if ((presence & STATUS) != 0) event.setStatus(in.readString());
+        if ((presence & TIMESTAMP) != 0) {
+            long seconds = in.readVarLong();
+            int nanos = (int) in.readVarLong();
+            event.setTimestamp(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC));
+        }
+        return event;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Writer {
+        private final byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[position++] = (byte) zigzag;
+        }
+
+        void writeDouble(double value) {
+            long bits = Double.doubleToLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (bits >>> shift);
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            byte[] result = new byte[position];
+            System.arraycopy(buffer, 0, result, 0, position);
+            return result;
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        int readByte() {
+            require(1);
+            return data[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long zigzag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                zigzag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in order event");
+        }
+
+        double readDouble() {
+            require(8);
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits = (bits << 8) | (data[position++] & 0xFF);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length < 0 || length > data.length - position) {
+                throw new IllegalArgumentException("Truncated order event");
+            }
+            String value = new String(data, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        private void require(int bytes) {
+            if (position + bytes > data.length) {
+                throw new IllegalArgumentException("Truncated order event");
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.events;
+
+import java.io.IOException;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka value deserializer for {@link OrderEvent}. Accepts both the binary encoding and the JSON
+ * written by older producers (Spring's JsonSerializer), so producers and consumers can be
+ * upgraded in any order.
+ */
+public class OrderEventDeserializer implements Deserializer<OrderEvent> {
+
+    @Override
+    public OrderEvent deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            if (OrderEventBinaryCodec.isBinary(data)) {
+                return OrderEventBinaryCodec.decode(data);
+            }
+            return OrderEventJson.MAPPER.readValue(data, OrderEvent.class);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new SerializationException("Can't deserialize order event from topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.events;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+// Same field layout as Spring Kafka's JsonSerializer, which is what pre-binary producers emit.
+// Dates are written as ISO-8601 strings, as Spring Boot's ObjectMapper does; a bare JsonSerializer
+// writes them as arrays. JavaTimeModule reads either form, so old and new events both decode.
+final class OrderEventJson {
+    static final ObjectMapper MAPPER = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private OrderEventJson() {}
+}
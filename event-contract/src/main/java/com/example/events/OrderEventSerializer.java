@@ -0,0 +1,40 @@
+package com.example.events;
+
+import java.util.Map;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Kafka value serializer for {@link OrderEvent}. Writes the binary encoding by default; set
+ * {@value #FORMAT_CONFIG}=json to keep publishing JSON while consumers are still on the old
+ * JSON-only deserializer.
+ */
+public class OrderEventSerializer implements Serializer<OrderEvent> {
+    public static final String FORMAT_CONFIG = "order.event.format";
+
+    private boolean json;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        json = format != null && "json".equalsIgnoreCase(format.toString().trim());
+    }
+
+    @Override
+    public byte[] serialize(String topic, OrderEvent data) {
+        if (data == null) {
+            return null;
+        }
+        if (!json) {
+            return OrderEventBinaryCodec.encode(data);
+        }
+        try {
+            return OrderEventJson.MAPPER.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Can't serialize order event for topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.events;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Binary codec vs Spring Kafka's JsonSerializer/JsonDeserializer on a typical order event.
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.events.OrderEventCodecBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderEventCodecBenchmark {
+    private static final String TOPIC = "order-created";
+
+    private OrderEvent event;
+    private JsonSerializer<OrderEvent> jsonSerializer;
+    private JsonDeserializer<OrderEvent> jsonDeserializer;
+    private OrderEventSerializer binarySerializer;
+    private OrderEventDeserializer binaryDeserializer;
+    private byte[] jsonPayload;
+    private byte[] binaryPayload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        event = OrderEventCodecTest.sampleEvent();
+        jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+        jsonDeserializer = new JsonDeserializer<>(OrderEvent.class, false);
+        binarySerializer = new OrderEventSerializer();
+        binaryDeserializer = new OrderEventDeserializer();
+        jsonPayload = jsonSerializer.serialize(TOPIC, event);
+        binaryPayload = binarySerializer.serialize(TOPIC, event);
+        System.out.printf("%npayload size: json=%d bytes, binary=%d bytes%n", jsonPayload.length, binaryPayload.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jsonSerializer.close();
+        jsonDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return jsonSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public OrderEvent deserializeJson() {
+        return jsonDeserializer.deserialize(TOPIC, jsonPayload);
+    }
+
+    @Benchmark
+    public OrderEvent deserializeBinary() {
+        return binaryDeserializer.deserialize(TOPIC, binaryPayload);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(OrderEventCodecBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
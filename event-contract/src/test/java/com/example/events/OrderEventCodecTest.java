@@ -0,0 +1,126 @@
+package com.example.events;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+class OrderEventCodecTest {
+    private static final String TOPIC = "order-created";
+
+    private final OrderEventSerializer serializer = new OrderEventSerializer();
+    private final OrderEventDeserializer deserializer = new OrderEventDeserializer();
+
+    @Test
+    void binaryRoundTripKeepsEveryField() {
+        OrderEvent event = sampleEvent();
+
+        OrderEvent decoded = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, event));
+
+        assertSameEvent(event, decoded);
+    }
+
+    @Test
+    void absentFieldsStayNull() {
+        OrderEvent event = new OrderEvent();
+        event.setOrderId(-5L);
+
+        OrderEvent decoded = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, event));
+
+        assertEquals(-5L, decoded.getOrderId());
+        assertNull(decoded.getCustomerId());
+        assertNull(decoded.getProductId());
+        assertNull(decoded.getTimestamp());
+    }
+
+    @Test
+    void readsJsonFromSpringJsonSerializer() {
+        OrderEvent event = sampleEvent();
+        try (JsonSerializer<OrderEvent> legacy = new JsonSerializer<>()) {
+            legacy.setAddTypeInfo(false);
+
+            assertSameEvent(event, deserializer.deserialize(TOPIC, legacy.serialize(TOPIC, event)));
+        }
+    }
+
+    @Test
+    void jsonModeIsReadableByLegacyConsumers() {
+        OrderEvent event = sampleEvent();
+        serializer.configure(Map.of(OrderEventSerializer.FORMAT_CONFIG, "json"), false);
+        try (JsonDeserializer<OrderEvent> legacy = new JsonDeserializer<>(OrderEvent.class, false)) {
+            assertSameEvent(event, legacy.deserialize(TOPIC, serializer.serialize(TOPIC, event)));
+        }
+    }
+
+    @Test
+    void jsonModeWritesIsoTimestampsAndRoundTrips() {
+        OrderEvent event = sampleEvent();
+        serializer.configure(Map.of(OrderEventSerializer.FORMAT_CONFIG, "json"), false);
+        byte[] json = serializer.serialize(TOPIC, event);
+
+        assertEquals("{\"orderId\":12345,\"customerId\":678,\"productId\":\"SKU-ELECTRONICS-0042\",\"quantity\":3,"
+            + "\"totalAmount\":149.97,\"status\":\"PENDING\",\"timestamp\":\"2025-03-14T09:26:53.589793\"}",
+            new String(json, StandardCharsets.UTF_8));
+        assertSameEvent(event, deserializer.deserialize(TOPIC, json));
+        try (JsonDeserializer<OrderEvent> legacy = new JsonDeserializer<>(OrderEvent.class, false)) {
+            assertSameEvent(event, legacy.deserialize(TOPIC, json));
+        }
+    }
+
+    @Test
+    void trailingFieldsFromNewerVersionsAreIgnored() {
+        byte[] current = OrderEventBinaryCodec.encode(sampleEvent());
+        byte[] newer = Arrays.copyOf(current, current.length + 3);
+        newer[1] = (byte) (OrderEvent.SCHEMA_VERSION + 1);
+
+        assertSameEvent(sampleEvent(), OrderEventBinaryCodec.decode(newer));
+    }
+
+    @Test
+    void truncatedPayloadIsRejected() {
+        byte[] encoded = OrderEventBinaryCodec.encode(sampleEvent());
+
+        assertThrows(SerializationException.class,
+            () -> deserializer.deserialize(TOPIC, Arrays.copyOf(encoded, encoded.length - 4)));
+    }
+
+    @Test
+    void binaryIsLessThanHalfTheJsonSize() {
+        OrderEvent event = sampleEvent();
+        try (JsonSerializer<OrderEvent> legacy = new JsonSerializer<>()) {
+            byte[] json = legacy.serialize(TOPIC, event);
+            byte[] binary = serializer.serialize(TOPIC, event);
+
+            System.out.printf("order event: json=%d bytes, binary=%d bytes%n", json.length, binary.length);
+            assertTrue(binary.length * 2 < json.length);
+            assertArrayEquals(binary, OrderEventBinaryCodec.encode(event));
+        }
+    }
+
+    static OrderEvent sampleEvent() {
+        OrderEvent event = new OrderEvent(12345L, 678L, "SKU-ELECTRONICS-0042", 3, 149.97, "PENDING");
+        event.setTimestamp(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000));
+        return event;
+    }
+
+    private static void assertSameEvent(OrderEvent expected, OrderEvent actual) {
+        assertEquals(expected.getOrderId(), actual.getOrderId());
+        assertEquals(expected.getCustomerId(), actual.getCustomerId());
+        assertEquals(expected.getProductId(), actual.getProductId());
+        assertEquals(expected.getQuantity(), actual.getQuantity());
+        assertEquals(expected.getTotalAmount(), actual.getTotalAmount());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    }
+}
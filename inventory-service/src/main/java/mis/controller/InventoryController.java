@@ -1,26 +1,38 @@
 package mis.controller;
 
+import mis.dto.ProductStock;
 import mis.model.Product;
 import mis.service.InventoryService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
-
 @RestController
 @RequestMapping("/api/inventory")
 public class InventoryController {
     private final InventoryService inventoryService;
+    // Clients revalidate every time; the gateway may keep catalog reads until it is purged or this runs out
+    private final CacheControl catalogCacheControl;
     
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService,
+                               @Value("${inventory.catalog.shared-max-age:60s}") Duration sharedMaxAge) {
         this.inventoryService = inventoryService;
+        this.catalogCacheControl = CacheControl.maxAge(Duration.ZERO).sMaxAge(sharedMaxAge);
     }
     
     @PostMapping
@@ -34,21 +46,29 @@ public class InventoryController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
     public ResponseEntity<EntityModel<Product>> getProduct(@PathVariable String id) {
         Product product = inventoryService.getProduct(id);
-        return ResponseEntity.ok(toModel(product));
+        return ResponseEntity.ok().cacheControl(catalogCacheControl).body(toModel(product));
     }
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
     public ResponseEntity<CollectionModel<EntityModel<Product>>> getAllProducts() {
+        String base = baseUri();
         List<EntityModel<Product>> products = inventoryService.getAllProducts()
             .stream()
-            .map(this::toModel)
+            .map(product -> toModel(product, base))
             .collect(Collectors.toList());
         
         CollectionModel<EntityModel<Product>> collectionModel = CollectionModel.of(products);
-        collectionModel.add(linkTo(methodOn(InventoryController.class).getAllProducts()).withSelfRel());
+        collectionModel.add(Link.of(base + "/api/inventory").withSelfRel());
         
-        return ResponseEntity.ok(collectionModel);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl).body(collectionModel);
+    }
+    
+    // Bulk variant of GET /{id} for order validation: plain id/quantity/price, no links
+    @PostMapping("/lookup")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
+    public ResponseEntity<List<ProductStock>> lookupStock(@RequestBody Set<String> ids) {
+        return ResponseEntity.ok(inventoryService.lookupStock(ids));
     }
     
     @PutMapping("/{id}")
@@ -65,31 +85,68 @@ public class InventoryController {
         return ResponseEntity.noContent().build();
     }
     
+    // Stock movements are driven by order processing, not by shoppers: a customer token must not
+    // be able to take stock off the shelf or, through release, create it
     @PatchMapping("/{id}/reserve")
+    @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<EntityModel<Product>> reserveStock(@PathVariable String id, @RequestParam Integer quantity) {
         Product product = inventoryService.reserveStock(id, quantity);
         return ResponseEntity.ok(toModel(product));
     }
     
+    @PatchMapping("/{id}/release")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EntityModel<Product>> releaseStock(@PathVariable String id, @RequestParam Integer quantity) {
+        Product product = inventoryService.releaseStock(id, quantity);
+        return ResponseEntity.ok(toModel(product));
+    }
+    
+    // Flash-sale mode: reservations for this product are served from in-memory counters
+    @PostMapping("/{id}/hot")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EntityModel<Product>> enableHotSku(@PathVariable String id) {
+        return ResponseEntity.ok(toModel(inventoryService.enableHotSku(id)));
+    }
+    
+    @DeleteMapping("/{id}/hot")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EntityModel<Product>> disableHotSku(@PathVariable String id) {
+        return ResponseEntity.ok(toModel(inventoryService.disableHotSku(id)));
+    }
+    
     private EntityModel<Product> toModel(Product product) {
+        return toModel(product, baseUri());
+    }
+    
+    // Links are the controller's paths appended to the base URI; linkTo(methodOn(...)) would
+    // build a proxy and reflect over the handler method for each of them
+    private EntityModel<Product> toModel(Product product, String baseUri) {
         EntityModel<Product> model = EntityModel.of(product);
+        String self = baseUri + "/api/inventory/" + UriUtils.encodePathSegment(product.getId(), StandardCharsets.UTF_8);
         
-        model.add(linkTo(methodOn(InventoryController.class).getProduct(product.getId())).withSelfRel());
-        model.add(linkTo(methodOn(InventoryController.class).getAllProducts()).withRel("products"));
-        model.add(linkTo(methodOn(InventoryController.class).updateProduct(product.getId(), null))
-            .withRel("update"));
-        model.add(linkTo(methodOn(InventoryController.class).deleteProduct(product.getId()))
-            .withRel("delete"));
+        model.add(Link.of(self).withSelfRel());
+        model.add(Link.of(baseUri + "/api/inventory", "products"));
+        model.add(Link.of(self, "update"));
+        model.add(Link.of(self, "delete"));
         
         // Only show reserve link if there's stock
         if (product.getQuantity() > 0) {
-            model.add(linkTo(methodOn(InventoryController.class).reserveStock(product.getId(), null))
-                .withRel("reserve"));
+            model.add(Link.of(self + "/reserve{?quantity}", "reserve"));
         }
         
         return model;
     }
     
+    private static String baseUri() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+    }
+    
+    // AccessDeniedException is a RuntimeException too; keep it a 403 rather than a 400
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<String> handleAccessDenied(AccessDeniedException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+    }
+    
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleException(RuntimeException e) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -0,0 +1,4 @@
+package mis.dto;
+
+// Slim product view for bulk lookups: just what order validation needs
+public record ProductStock(String id, Integer quantity, Double price) {}
@@ -20,5 +20,7 @@ public class Product {
     private String description;
     private Double price;  // MAKE SURE THIS EXISTS
     private String category;
+    // Units leased to the hot-SKU counters and not yet confirmed sold; not part of quantity
+    private Integer hotReserved;
 
 }
\ No newline at end of file
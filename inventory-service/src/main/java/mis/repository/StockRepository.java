@@ -0,0 +1,103 @@
+package mis.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import mis.dto.ProductStock;
+import mis.model.Product;
+
+// Stock changes as single conditional findAndModify calls, so concurrent reservations can
+// neither overwrite each other nor take the quantity below zero
+@Repository
+public class StockRepository {
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    public StockRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // One $in query, reading only quantity and price; unknown ids are simply absent
+    public List<ProductStock> findStock(Collection<String> ids) {
+        Query query = query(where("_id").in(ids));
+        query.fields().include("quantity", "price");
+        return mongoTemplate.find(query, Product.class).stream()
+            .map(p -> new ProductStock(p.getId(), p.getQuantity(), p.getPrice()))
+            .toList();
+    }
+
+    // Empty when the product does not exist or has fewer than quantity units left
+    public Optional<Product> reserve(String id, int quantity) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+            query(where("_id").is(id).and("quantity").gte(quantity)),
+            new Update().inc("quantity", -quantity),
+            RETURN_NEW,
+            Product.class));
+    }
+
+    // Empty when the product does not exist
+    public Optional<Product> release(String id, int quantity) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+            query(where("_id").is(id)),
+            new Update().inc("quantity", quantity),
+            RETURN_NEW,
+            Product.class));
+    }
+
+    // Moves quantity units into the hot-SKU escrow (hotReserved) if that many are in stock
+    public Optional<Product> lease(String id, int quantity) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+            query(where("_id").is(id).and("quantity").gte(quantity)),
+            new Update().inc("quantity", -quantity).inc("hotReserved", quantity),
+            RETURN_NEW,
+            Product.class));
+    }
+
+    // Hands unsold escrowed units back to quantity
+    public Optional<Product> returnLease(String id, long quantity) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+            query(where("_id").is(id)),
+            new Update().inc("quantity", quantity).inc("hotReserved", -quantity),
+            RETURN_NEW,
+            Product.class));
+    }
+
+    // Ends hot-SKU mode: unsold units go back to quantity, the rest of the escrow counts as sold
+    public Optional<Product> closeLease(String id, long unsold) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+            query(where("_id").is(id)),
+            new Update().inc("quantity", unsold).set("hotReserved", 0),
+            RETURN_NEW,
+            Product.class));
+    }
+
+    // Records escrowed units as sold (negative for units released back into the counters)
+    public Optional<Product> consumeLease(String id, long quantity) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+            query(where("_id").is(id)),
+            new Update().inc("hotReserved", -quantity),
+            RETURN_NEW,
+            Product.class));
+    }
+
+    // Products whose escrow was not handed back, i.e. the previous run did not shut down cleanly
+    public List<Product> findWithOutstandingLease() {
+        return mongoTemplate.find(query(where("hotReserved").gt(0)), Product.class);
+    }
+
+    // Drops an orphaned escrow without returning it: some of it may have been sold after the last flush
+    public void writeOffLease(String id) {
+        mongoTemplate.updateFirst(query(where("_id").is(id)), new Update().set("hotReserved", 0), Product.class);
+    }
+}
@@ -0,0 +1,106 @@
+package mis.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * Drops the api-gateway's cached catalog responses for products written here. Changes are
+ * collected and sent as one purge per interval, since hot-SKU flushes and reservations announce
+ * a change on every Mongo write. A failed purge is retried with the next one; meanwhile the
+ * gateway serves the old response until its TTL (inventory.catalog.shared-max-age) runs out.
+ */
+@Component
+public class GatewayCachePurger {
+    private static final Logger log = LoggerFactory.getLogger(GatewayCachePurger.class);
+    private static final String CATALOG = "/api/inventory";
+
+    private final WebClient webClient;
+    private final boolean enabled;
+    private final String purgeToken;
+    private final Duration timeout;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean everything = new AtomicBoolean();
+
+    public GatewayCachePurger(WebClient.Builder webClientBuilder,
+                              @Value("${inventory.gateway-cache.url:http://api-gateway:8080}") String gatewayUrl,
+                              @Value("${inventory.gateway-cache.enabled:true}") boolean enabled,
+                              @Value("${inventory.gateway-cache.purge-token:}") String purgeToken,
+                              @Value("${inventory.gateway-cache.timeout:2s}") Duration timeout) {
+        this.webClient = webClientBuilder.baseUrl(gatewayUrl).build();
+        this.enabled = enabled && !purgeToken.isBlank();
+        this.purgeToken = purgeToken;
+        this.timeout = timeout;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.productId() == null) {
+            everything.set(true);
+        } else {
+            pending.add(event.productId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.gateway-cache.purge-interval-ms:250}")
+    public void flush() {
+        boolean all = everything.getAndSet(false);
+        List<String> ids = new ArrayList<>();
+        for (String id : pending) {
+            if (pending.remove(id)) {
+                ids.add(id);
+            }
+        }
+        if (!all && ids.isEmpty()) {
+            return;
+        }
+
+        // The listing shows every product, so it goes with any change
+        List<String> paths = new ArrayList<>(List.of(CATALOG));
+        List<String> prefixes = new ArrayList<>();
+        if (all) {
+            prefixes.add(CATALOG + "/");
+        } else {
+            for (String id : ids) {
+                String path = CATALOG + "/" + UriUtils.encodePathSegment(id, StandardCharsets.UTF_8);
+                paths.add(path);
+                prefixes.add(path + "/");
+            }
+        }
+
+        // Not blocking the scheduler thread, which HotSkuStock's flush shares
+        webClient.post()
+            .uri("/api/gateway/cache/purge")
+            .header("X-Cache-Purge-Token", purgeToken)
+            .bodyValue(Map.of("paths", paths, "prefixes", prefixes))
+            .retrieve()
+            .toBodilessEntity()
+            .timeout(timeout)
+            .subscribe(
+                response -> log.debug("Purged gateway cache for {} product(s)", all ? "all" : ids.size()),
+                e -> {
+                    log.warn("Gateway cache purge failed, retrying with the next one: {}", e.getMessage());
+                    if (all) {
+                        everything.set(true);
+                    }
+                    pending.addAll(ids);
+                });
+    }
+}
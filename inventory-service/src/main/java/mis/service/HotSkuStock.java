@@ -0,0 +1,295 @@
+package mis.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import mis.dto.ProductStock;
+import mis.model.Product;
+import mis.repository.ProductRepository;
+import mis.repository.StockRepository;
+
+/**
+ * Flash-sale mode for designated products. Instead of every reservation updating the same Mongo
+ * document, a block of stock is leased into a StripedCounter and reservations are served from
+ * memory. The lease is escrowed in the product's hotReserved field, never in quantity, and a
+ * write-behind flush records what was sold and tops the lease up or hands the excess back.
+ *
+ * After a crash the escrow is written off rather than returned, because sales since the last
+ * flush are unknown: the worst case is leaving up to one lease unsold, never overselling.
+ * Assumes a single inventory-service instance owns the hot products.
+ *
+ * Locks are ReentrantLocks rather than monitors because they are held across Mongo calls: a
+ * virtual thread blocking inside synchronized would pin its carrier thread.
+ */
+@Component
+public class HotSkuStock {
+    private static final Logger log = LoggerFactory.getLogger(HotSkuStock.class);
+
+    private final StockRepository stockRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher events;
+    private final int stripes;
+    private final int leaseSize;
+    private final String[] configuredIds;
+    private final Map<String, Hot> hot = new ConcurrentHashMap<>();
+    // Serializes activate/deactivate/shutdown
+    private final ReentrantLock modeLock = new ReentrantLock();
+
+    private static final class Hot {
+        final String id;
+        final StripedCounter counter;
+        // Net units sold (reservations minus releases) not yet flushed to Mongo
+        final LongAdder unflushedSold = new LongAdder();
+        final ReentrantLock lock = new ReentrantLock();
+        // Last document seen, for name/price/quantity in responses without a read
+        volatile Product snapshot;
+        // Mongo had nothing left to lease; only the flusher retries until stock comes back
+        volatile boolean exhausted;
+        boolean active = true;
+
+        Hot(String id, int stripes) {
+            this.id = id;
+            this.counter = new StripedCounter(stripes);
+        }
+    }
+
+    public HotSkuStock(StockRepository stockRepository,
+                       ProductRepository productRepository,
+                       ApplicationEventPublisher events,
+                       @Value("${inventory.hot-skus.stripes:0}") int stripes,
+                       @Value("${inventory.hot-skus.lease-size:500}") int leaseSize,
+                       @Value("${inventory.hot-skus.product-ids:}") String productIds) {
+        this.stockRepository = stockRepository;
+        this.productRepository = productRepository;
+        this.events = events;
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.leaseSize = leaseSize;
+        this.configuredIds = Arrays.stream(productIds.split(","))
+            .map(String::trim)
+            .filter(id -> !id.isEmpty())
+            .toArray(String[]::new);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (Product product : stockRepository.findWithOutstandingLease()) {
+            log.warn("Writing off {} escrowed units of product {} left by an unclean shutdown",
+                product.getHotReserved(), product.getId());
+            stockRepository.writeOffLease(product.getId());
+            changed(product);
+        }
+        for (String id : configuredIds) {
+            activate(id);
+        }
+    }
+
+    public boolean isHot(String id) {
+        return hot.containsKey(id);
+    }
+
+    public Product activate(String id) {
+        modeLock.lock();
+        try {
+            Hot existing = hot.get(id);
+            if (existing != null) {
+                return withLiveStock(existing.snapshot);
+            }
+            Hot sku = new Hot(id, stripes);
+            sku.snapshot = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found: " + id));
+            sku.lock.lock();
+            try {
+                sku.counter.add(leaseUpTo(sku, leaseSize));
+            } finally {
+                sku.lock.unlock();
+            }
+            hot.put(id, sku);
+            log.info("Product {} in hot-SKU mode: {} units over {} stripes", id, sku.counter.sum(), stripes);
+            return withLiveStock(sku.snapshot);
+        } finally {
+            modeLock.unlock();
+        }
+    }
+
+    // Back to plain Mongo reservations; flushes sales and returns the unsold lease
+    public Product deactivate(String id) {
+        modeLock.lock();
+        try {
+            Hot sku = hot.remove(id);
+            if (sku == null) {
+                throw new RuntimeException("Product is not in hot-SKU mode: " + id);
+            }
+            sku.lock.lock();
+            try {
+                sku.active = false;
+                // Whatever the counters no longer hold was sold, including sales not flushed yet
+                long unsold = sku.counter.drain();
+                stockRepository.closeLease(id, unsold).ifPresent(p -> changed(sku, p));
+            } finally {
+                sku.lock.unlock();
+            }
+            log.info("Product {} left hot-SKU mode", id);
+            return sku.snapshot;
+        } finally {
+            modeLock.unlock();
+        }
+    }
+
+    // Same contract as StockRepository.reserve: the product with its new stock, or empty if short
+    public Optional<Product> reserve(String id, int quantity) {
+        Hot sku = hot.get(id);
+        if (sku == null) {
+            return stockRepository.reserve(id, quantity).map(this::changed);
+        }
+        if (sku.counter.tryTake(quantity)) {
+            sku.unflushedSold.add(quantity);
+            return Optional.of(withLiveStock(sku.snapshot));
+        }
+        // No single stripe holds enough: pool all stripes and lease more if needed
+        sku.lock.lock();
+        try {
+            if (!sku.active) {
+                return stockRepository.reserve(id, quantity).map(this::changed);
+            }
+            long available = sku.counter.drain();
+            if (available < quantity && !sku.exhausted) {
+                available += leaseUpTo(sku, Math.max(leaseSize, quantity - available));
+            }
+            if (available < quantity) {
+                sku.counter.add(available);
+                return Optional.empty();
+            }
+            sku.counter.add(available - quantity);
+            sku.unflushedSold.add(quantity);
+            return Optional.of(withLiveStock(sku.snapshot));
+        } finally {
+            sku.lock.unlock();
+        }
+    }
+
+    public Optional<Product> release(String id, int quantity) {
+        Hot sku = hot.get(id);
+        if (sku == null) {
+            return stockRepository.release(id, quantity).map(this::changed);
+        }
+        sku.lock.lock();
+        try {
+            if (!sku.active) {
+                return stockRepository.release(id, quantity).map(this::changed);
+            }
+            sku.counter.addLocal(quantity);
+            sku.unflushedSold.add(-quantity);
+            sku.exhausted = false;
+            return Optional.of(withLiveStock(sku.snapshot));
+        } finally {
+            sku.lock.unlock();
+        }
+    }
+
+    // Stock as clients see it: Mongo quantity plus what the counters still hold
+    public Product withLiveStock(Product product) {
+        Hot sku = hot.get(product.getId());
+        if (sku == null) {
+            return product;
+        }
+        return new Product(product.getId(), product.getName(), product.getQuantity() + (int) sku.counter.sum(),
+            product.getDescription(), product.getPrice(), product.getCategory(), product.getHotReserved());
+    }
+
+    public ProductStock withLiveStock(ProductStock stock) {
+        Hot sku = hot.get(stock.id());
+        if (sku == null) {
+            return stock;
+        }
+        return new ProductStock(stock.id(), stock.quantity() + (int) sku.counter.sum(), stock.price());
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.hot-skus.flush-interval-ms:100}")
+    public void flush() {
+        for (Hot sku : hot.values()) {
+            sku.lock.lock();
+            try {
+                if (!sku.active) {
+                    continue;
+                }
+                flushSold(sku);
+                long remaining = sku.counter.sum();
+                if (remaining < leaseSize / 2) {
+                    sku.exhausted = false;
+                    sku.counter.add(leaseUpTo(sku, leaseSize - remaining));
+                } else if (remaining > 2L * leaseSize) {
+                    // Releases piled up in memory: keep one lease, give the rest back to Mongo
+                    long drained = sku.counter.drain();
+                    long keep = Math.min(drained, leaseSize);
+                    sku.counter.add(keep);
+                    stockRepository.returnLease(sku.id, drained - keep).ifPresent(p -> changed(sku, p));
+                }
+            } finally {
+                sku.lock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        modeLock.lock();
+        try {
+            for (String id : hot.keySet().toArray(String[]::new)) {
+                deactivate(id);
+            }
+        } finally {
+            modeLock.unlock();
+        }
+    }
+
+    private void flushSold(Hot sku) {
+        long sold = sku.unflushedSold.sumThenReset();
+        if (sold != 0) {
+            stockRepository.consumeLease(sku.id, sold).ifPresent(p -> changed(sku, p));
+        }
+    }
+
+    // Every write to Mongo is announced so cached copies of the product are dropped;
+    // reservations served from the counters do not touch Mongo and are not
+    private Product changed(Product product) {
+        events.publishEvent(ProductChangedEvent.of(product.getId()));
+        return product;
+    }
+
+    private void changed(Hot sku, Product product) {
+        sku.snapshot = product;
+        changed(product);
+    }
+
+    // Leases up to wanted units (fewer if Mongo has less) and returns how many were obtained.
+    // Called with the sku lock held; the units are not added to the counter here.
+    private long leaseUpTo(Hot sku, long wanted) {
+        int units = (int) Math.min(wanted, Integer.MAX_VALUE);
+        Optional<Product> leased = stockRepository.lease(sku.id, units);
+        if (leased.isEmpty()) {
+            int inStock = productRepository.findById(sku.id).map(Product::getQuantity).orElse(0);
+            units = Math.min(units, inStock);
+            leased = units > 0 ? stockRepository.lease(sku.id, units) : Optional.empty();
+        }
+        if (leased.isEmpty()) {
+            sku.exhausted = true;
+            return 0;
+        }
+        changed(sku, leased.get());
+        return units;
+    }
+}
@@ -1,51 +1,123 @@
 package mis.service;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import mis.dto.ProductStock;
 import mis.model.Product;
 import mis.repository.ProductRepository;
+import mis.repository.StockRepository;
 
 @Service
 public class InventoryService {
     private final ProductRepository productRepository;
+    private final StockRepository stockRepository;
+    private final HotSkuStock hotSkuStock;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher events;
+    private final int maxLookupIds;
     
-    public InventoryService(ProductRepository productRepository) {
+    public InventoryService(ProductRepository productRepository, StockRepository stockRepository,
+                            HotSkuStock hotSkuStock, ProductCache productCache,
+                            ApplicationEventPublisher events,
+                            @Value("${inventory.lookup.max-ids:1000}") int maxLookupIds) {
         this.productRepository = productRepository;
+        this.stockRepository = stockRepository;
+        this.hotSkuStock = hotSkuStock;
+        this.productCache = productCache;
+        this.events = events;
+        this.maxLookupIds = maxLookupIds;
     }
     
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product created = productRepository.save(product);
+        events.publishEvent(ProductChangedEvent.of(created.getId()));
+        return created;
     }
     
     public Product getProduct(String id) {
-        return productRepository.findById(id)
+        return productCache.get(id, productRepository::findById)
+            .map(hotSkuStock::withLiveStock)
             .orElseThrow(() -> new RuntimeException("Product not found: " + id));
     }
     
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return productCache.getAll(productRepository::findAll).stream()
+            .map(hotSkuStock::withLiveStock)
+            .toList();
+    }
+    
+    // Stock and price of many products in one query; ids that do not exist are left out
+    public List<ProductStock> lookupStock(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        if (ids.size() > maxLookupIds) {
+            throw new RuntimeException("Lookup exceeds the maximum of " + maxLookupIds + " product ids");
+        }
+        return stockRepository.findStock(ids).stream()
+            .map(hotSkuStock::withLiveStock)
+            .toList();
     }
     
     public Product updateProduct(String id, Product product) {
-        Product existing = getProduct(id);
+        if (hotSkuStock.isHot(id)) {
+            // A full save would race the counters' writes to quantity and hotReserved
+            throw new RuntimeException("Product " + id + " is in hot-SKU mode; take it out before editing");
+        }
+        // Read from Mongo, not the cache: the full save must start from the current document
+        Product existing = productRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Product not found: " + id));
         existing.setName(product.getName());
         existing.setQuantity(product.getQuantity());
         existing.setPrice(product.getPrice());
-        return productRepository.save(existing);
+        Product saved = productRepository.save(existing);
+        events.publishEvent(ProductChangedEvent.of(id));
+        return saved;
     }
     
     public void deleteProduct(String id) {
+        if (hotSkuStock.isHot(id)) {
+            throw new RuntimeException("Product " + id + " is in hot-SKU mode; take it out before deleting");
+        }
         productRepository.deleteById(id);
+        events.publishEvent(ProductChangedEvent.of(id));
     }
     
+    // Check and decrement happen in one atomic update; returns the product with its new stock
     public Product reserveStock(String id, Integer quantity) {
-        Product product = getProduct(id);
-        if (product.getQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock for product: " + id);
+        checkQuantity(quantity);
+        return hotSkuStock.reserve(id, quantity).orElseThrow(() -> {
+            // Second round trip only on failure, to tell the two cases apart
+            if (!productRepository.existsById(id)) {
+                return new RuntimeException("Product not found: " + id);
+            }
+            return new RuntimeException("Insufficient stock for product: " + id);
+        });
+    }
+    
+    // Gives back stock from a cancelled or failed reservation
+    public Product releaseStock(String id, Integer quantity) {
+        checkQuantity(quantity);
+        return hotSkuStock.release(id, quantity)
+            .orElseThrow(() -> new RuntimeException("Product not found: " + id));
+    }
+    
+    public Product enableHotSku(String id) {
+        return hotSkuStock.activate(id);
+    }
+    
+    public Product disableHotSku(String id) {
+        return hotSkuStock.deactivate(id);
+    }
+    
+    private static void checkQuantity(Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive");
         }
-        product.setQuantity(product.getQuantity() - quantity);
-        return productRepository.save(product);
     }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package mis.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import mis.model.Product;
+
+/**
+ * In-process cache of product documents and of the full catalog listing. Entries are dropped
+ * when a ProductChangedEvent is published by this instance, and, when MongoDB runs as a replica
+ * set or behind mongos, when the products change stream reports a write from anywhere else.
+ */
+@Component
+public class ProductCache {
+    private static final Logger log = LoggerFactory.getLogger(ProductCache.class);
+    private static final String COLLECTION = "products";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean changeStreamEnabled;
+    private final long maxEntries;
+    private final Cache<String, Product> products;
+    private final Timer staleness;
+    private final Counter listHits;
+    private final Counter listMisses;
+
+    // Full catalog listing; generation guards against caching a listing read before an invalidation
+    private List<Product> all;
+    private long generation;
+    private MessageListenerContainer changeStream;
+
+    public ProductCache(MongoTemplate mongoTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${inventory.cache.max-entries:10000}") long maxEntries,
+                        @Value("${inventory.cache.change-stream.enabled:true}") boolean changeStreamEnabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.changeStreamEnabled = changeStreamEnabled;
+        this.maxEntries = maxEntries;
+        this.products = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        Gauge.builder("inventory.products.cache.hit.ratio", products, cache -> cache.stats().hitRate())
+            .description("Share of product reads served from the cache")
+            .register(meterRegistry);
+        this.staleness = Timer.builder("inventory.products.cache.staleness")
+            .description("Time from a product write to its cache invalidation")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.listHits = Counter.builder("cache.gets").tag("cache", "products-list").tag("result", "hit")
+            .register(meterRegistry);
+        this.listMisses = Counter.builder("cache.gets").tag("cache", "products-list").tag("result", "miss")
+            .register(meterRegistry);
+    }
+
+    public Optional<Product> get(String id, Function<String, Optional<Product>> loader) {
+        // Caffeine does not store null, so missing products are looked up again next time
+        return Optional.ofNullable(products.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public List<Product> getAll(Supplier<List<Product>> loader) {
+        long seen;
+        synchronized (this) {
+            if (all != null) {
+                listHits.increment();
+                return all;
+            }
+            seen = generation;
+        }
+        listMisses.increment();
+        List<Product> loaded = List.copyOf(loader.get());
+        synchronized (this) {
+            if (generation == seen && loaded.size() <= maxEntries) {
+                all = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.productId(), event.changedAt());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startChangeStream() {
+        if (!changeStreamEnabled) {
+            return;
+        }
+        if (!supportsChangeStreams()) {
+            log.info("MongoDB is not a replica set; product cache relies on in-process invalidation only");
+            return;
+        }
+        changeStream = new DefaultMessageListenerContainer(mongoTemplate);
+        ChangeStreamRequest<Document> request = ChangeStreamRequest.builder(this::onChange)
+            .collection(COLLECTION)
+            .build();
+        changeStream.register(request, Document.class,
+            e -> log.warn("Products change stream failed: {}", e.getMessage()));
+        changeStream.start();
+        log.info("Product cache follows the {} change stream", COLLECTION);
+    }
+
+    @PreDestroy
+    public void stopChangeStream() {
+        if (changeStream != null) {
+            changeStream.stop();
+        }
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, Document> message) {
+        ChangeStreamDocument<Document> event = message.getRaw();
+        if (event == null) {
+            return;
+        }
+        Instant changedAt = event.getWallTime() != null
+            ? Instant.ofEpochMilli(event.getWallTime().getValue())
+            : null;
+        OperationType type = event.getOperationType();
+        BsonDocument key = event.getDocumentKey();
+        if (type == OperationType.INVALIDATE || type == OperationType.DROP
+                || type == OperationType.RENAME || type == OperationType.DROP_DATABASE || key == null) {
+            invalidate(null, changedAt);
+            return;
+        }
+        invalidate(idOf(key.get("_id")), changedAt);
+    }
+
+    private void invalidate(String productId, Instant changedAt) {
+        if (productId == null) {
+            products.invalidateAll();
+        } else {
+            products.invalidate(productId);
+        }
+        synchronized (this) {
+            generation++;
+            all = null;
+        }
+        if (changedAt != null) {
+            staleness.record(Duration.between(changedAt, Instant.now()).abs());
+        }
+    }
+
+    private boolean supportsChangeStreams() {
+        try {
+            Document hello = mongoTemplate.executeCommand(new Document("hello", 1));
+            return hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg"));
+        } catch (RuntimeException e) {
+            log.warn("Could not tell whether MongoDB supports change streams: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // Spring Data stores String ids that look like ObjectIds as ObjectIds
+    private static String idOf(BsonValue id) {
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
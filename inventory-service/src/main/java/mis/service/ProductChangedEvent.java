@@ -0,0 +1,11 @@
+package mis.service;
+
+import java.time.Instant;
+
+// Published after any write to a product document; a null productId means "anything may have changed"
+public record ProductChangedEvent(String productId, Instant changedAt) {
+
+    public static ProductChangedEvent of(String productId) {
+        return new ProductChangedEvent(productId, Instant.now());
+    }
+}
@@ -0,0 +1,128 @@
+package mis.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import mis.model.Product;
+
+/**
+ * Hammers one product with concurrent reservations and releases against a real MongoDB:
+ *
+ * mvn test -Dtest=StockRepositoryStressTest -Dinventory.test.mongodb-uri=mongodb://localhost:27012
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "inventory.test.mongodb-uri", matches = ".+")
+class StockRepositoryStressTest {
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 500;
+    private static final int INITIAL_STOCK = 10_000;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private StockRepository stockRepository;
+
+    @BeforeAll
+    void connect() {
+        client = MongoClients.create(System.getProperty("inventory.test.mongodb-uri"));
+        mongoTemplate = new MongoTemplate(client, "inventory_stress_test");
+        stockRepository = new StockRepository(mongoTemplate);
+    }
+
+    @AfterAll
+    void dropDatabase() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        // Demand (64 * 500 * ~2 units) is well above the stock, so most threads race for the last units
+        String id = newProduct();
+        AtomicLong reserved = new AtomicLong();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(() -> {
+            int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+            if (stockRepository.reserve(id, quantity).isPresent()) {
+                reserved.addAndGet(quantity);
+            } else {
+                rejected.incrementAndGet();
+            }
+        });
+
+        int left = mongoTemplate.findById(id, Product.class).getQuantity();
+        System.out.printf("reserved=%d rejected=%d left=%d%n", reserved.get(), rejected.get(), left);
+        assertTrue(left >= 0, "stock went negative: " + left);
+        assertEquals(INITIAL_STOCK, reserved.get() + left);
+        // Stock ran out: whatever is left is smaller than the largest request
+        assertTrue(left < 3);
+        assertTrue(rejected.get() > 0);
+    }
+
+    @Test
+    void interleavedReserveAndReleaseKeepStockConsistent() throws Exception {
+        String id = newProduct();
+        AtomicLong net = new AtomicLong();
+
+        runConcurrently(() -> {
+            int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+            if (stockRepository.reserve(id, quantity).isPresent()) {
+                net.addAndGet(quantity);
+                if (ThreadLocalRandom.current().nextBoolean()) {
+                    stockRepository.release(id, quantity);
+                    net.addAndGet(-quantity);
+                }
+            }
+        });
+
+        int left = mongoTemplate.findById(id, Product.class).getQuantity();
+        assertTrue(left >= 0);
+        assertEquals(INITIAL_STOCK, net.get() + left);
+    }
+
+    private String newProduct() {
+        Product product = new Product(UUID.randomUUID().toString(), "stress", INITIAL_STOCK, null, 1.0, null, null);
+        return mongoTemplate.insert(product).getId();
+    }
+
+    private static void runConcurrently(Runnable attempt) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    attempt.run();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+    }
+}
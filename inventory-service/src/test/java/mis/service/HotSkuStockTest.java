@@ -0,0 +1,194 @@
+package mis.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import mis.model.Product;
+import mis.repository.ProductRepository;
+import mis.repository.StockRepository;
+
+class HotSkuStockTest {
+    private static final String SKU = "flash-1";
+    private static final int INITIAL_STOCK = 10_000;
+
+    // The product document; each repository call below is applied atomically, like findAndModify
+    private final Object doc = new Object();
+    private int quantity = INITIAL_STOCK;
+    private int hotReserved;
+
+    private final StockRepository stockRepository = documentBackedStockRepository();
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    HotSkuStockTest() {
+        when(productRepository.findById(SKU)).thenAnswer(invocation -> Optional.of(snapshot()));
+    }
+
+    @Test
+    void concurrentReservationsWithRunningFlusherNeverOversell() throws Exception {
+        HotSkuStock stock = new HotSkuStock(stockRepository, productRepository, event -> { }, 8, 200, SKU);
+        stock.start();
+
+        AtomicLong reserved = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread flusher = new Thread(() -> {
+            while (!done.get()) {
+                stock.flush();
+            }
+        });
+        flusher.start();
+        runConcurrently(16, 2_000, () -> {
+            int units = ThreadLocalRandom.current().nextInt(1, 4);
+            if (stock.reserve(SKU, units).isPresent()) {
+                reserved.addAndGet(units);
+            }
+        });
+        done.set(true);
+        flusher.join();
+
+        stock.deactivate(SKU);
+        synchronized (doc) {
+            assertTrue(reserved.get() <= INITIAL_STOCK, "oversold: " + reserved.get());
+            assertEquals(INITIAL_STOCK, reserved.get() + quantity);
+            assertEquals(0, hotReserved);
+        }
+    }
+
+    @Test
+    void releasedUnitsCanBeReservedAgain() {
+        HotSkuStock stock = new HotSkuStock(stockRepository, productRepository, event -> { }, 4, 100, SKU);
+        stock.start();
+
+        assertEquals(INITIAL_STOCK - 5, stock.reserve(SKU, 5).get().getQuantity());
+        assertEquals(INITIAL_STOCK, stock.release(SKU, 5).get().getQuantity());
+        stock.flush();
+        stock.deactivate(SKU);
+
+        synchronized (doc) {
+            assertEquals(INITIAL_STOCK, quantity);
+            assertEquals(0, hotReserved);
+        }
+    }
+
+    @Test
+    void crashWritesOffTheEscrowInsteadOfOverselling() {
+        HotSkuStock crashed = new HotSkuStock(stockRepository, productRepository, event -> { }, 4, 100, SKU);
+        crashed.start();
+        for (int i = 0; i < 30; i++) {
+            crashed.reserve(SKU, 1);
+        }
+        // No flush and no shutdown: the process dies with 30 sales only in memory
+
+        new HotSkuStock(stockRepository, productRepository, event -> { }, 4, 100, "").start();
+
+        synchronized (doc) {
+            // The 70 unsold leased units are lost, but none of the 30 sold ones can be sold again
+            assertEquals(0, hotReserved);
+            assertEquals(INITIAL_STOCK - 100, quantity);
+        }
+    }
+
+    @Test
+    void reservationThroughputOnOneSku() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+        HotSkuStock stock = new HotSkuStock(stockRepository, productRepository, event -> { }, 0, 5_000, SKU);
+        synchronized (doc) {
+            quantity = Integer.MAX_VALUE / 2;
+        }
+        stock.start();
+
+        long start = System.nanoTime();
+        runConcurrently(threads, 200_000, () -> stock.reserve(SKU, 1));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("hot SKU: %d threads, %.0f reservations/s%n", threads, threads * 200_000 / seconds);
+    }
+
+    private Product snapshot() {
+        synchronized (doc) {
+            return new Product(SKU, "Flash sale item", quantity, null, 9.99, null, hotReserved);
+        }
+    }
+
+    private StockRepository documentBackedStockRepository() {
+        StockRepository repo = mock(StockRepository.class);
+        when(repo.lease(anyString(), anyInt())).thenAnswer(invocation -> {
+            int units = invocation.getArgument(1);
+            synchronized (doc) {
+                if (quantity < units) {
+                    return Optional.empty();
+                }
+                quantity -= units;
+                hotReserved += units;
+            }
+            return Optional.of(snapshot());
+        });
+        when(repo.consumeLease(anyString(), anyLong())).thenAnswer(invocation -> {
+            synchronized (doc) {
+                hotReserved -= (int) invocation.<Long>getArgument(1).longValue();
+            }
+            return Optional.of(snapshot());
+        });
+        when(repo.returnLease(anyString(), anyLong())).thenAnswer(invocation -> {
+            int units = (int) invocation.<Long>getArgument(1).longValue();
+            synchronized (doc) {
+                quantity += units;
+                hotReserved -= units;
+            }
+            return Optional.of(snapshot());
+        });
+        when(repo.closeLease(anyString(), anyLong())).thenAnswer(invocation -> {
+            synchronized (doc) {
+                quantity += (int) invocation.<Long>getArgument(1).longValue();
+                hotReserved = 0;
+            }
+            return Optional.of(snapshot());
+        });
+        when(repo.findWithOutstandingLease()).thenAnswer(invocation ->
+            hotReserved > 0 ? List.of(snapshot()) : List.of());
+        doAnswer(invocation -> {
+            synchronized (doc) {
+                hotReserved = 0;
+            }
+            return null;
+        }).when(repo).writeOffLease(anyString());
+        return repo;
+    }
+
+    private static void runConcurrently(int threads, int attemptsPerThread, Runnable attempt) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    attempt.run();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+    }
+}
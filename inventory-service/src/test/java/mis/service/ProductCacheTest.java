@@ -0,0 +1,81 @@
+package mis.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mis.model.Product;
+
+class ProductCacheTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ProductCache cache = new ProductCache(mock(MongoTemplate.class), registry, 100, false);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(5, cache.get("p-1", this::load).get().getQuantity());
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(0.9, registry.get("inventory.products.cache.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void changeEventDropsTheEntryAndRecordsStaleness() {
+        cache.get("p-1", this::load);
+
+        cache.onProductChanged(ProductChangedEvent.of("p-1"));
+        cache.get("p-1", this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, registry.get("inventory.products.cache.staleness").timer().count());
+    }
+
+    @Test
+    void missingProductsAreNotCached() {
+        assertTrue(cache.get("ghost", id -> Optional.empty()).isEmpty());
+        assertEquals(5, cache.get("ghost", this::load).get().getQuantity());
+    }
+
+    @Test
+    void listingIsCachedUntilAnyProductChanges() {
+        cache.getAll(this::loadAll);
+        cache.getAll(this::loadAll);
+        assertEquals(1, loads.get());
+
+        cache.onProductChanged(ProductChangedEvent.of("p-7"));
+        cache.getAll(this::loadAll);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void listingReadDuringAnInvalidationIsNotKept() {
+        // The write lands while the listing is being read from Mongo
+        cache.getAll(() -> {
+            cache.onProductChanged(ProductChangedEvent.of("p-1"));
+            return loadAll();
+        });
+        cache.getAll(this::loadAll);
+
+        assertEquals(2, loads.get());
+    }
+
+    private Optional<Product> load(String id) {
+        loads.incrementAndGet();
+        return Optional.of(new Product(id, "Widget", 5, null, 2.5, null, null));
+    }
+
+    private List<Product> loadAll() {
+        loads.incrementAndGet();
+        return List.of(new Product("p-1", "Widget", 5, null, 2.5, null, null));
+    }
+}
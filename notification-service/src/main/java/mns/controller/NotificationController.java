@@ -5,8 +5,7 @@ import java.util.stream.Collectors;
 
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import org.springframework.hateoas.Link;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,6 +17,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import mns.model.Notification;
 import mns.service.NotificationService;
@@ -41,13 +41,14 @@ public class NotificationController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<CollectionModel<EntityModel<Notification>>> getAllNotifications() {
+        String base = baseUri();
         List<EntityModel<Notification>> notifications = notificationService.getAllNotifications()
             .stream()
-            .map(this::toModel)
+            .map(notification -> toModel(notification, base))
             .collect(Collectors.toList());
         
         CollectionModel<EntityModel<Notification>> collectionModel = CollectionModel.of(notifications);
-        collectionModel.add(linkTo(methodOn(NotificationController.class).getAllNotifications()).withSelfRel());
+        collectionModel.add(Link.of(base + "/api/notifications").withSelfRel());
         
         return ResponseEntity.ok(collectionModel);
     }
@@ -55,13 +56,14 @@ public class NotificationController {
     @GetMapping("/order/{orderId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
     public ResponseEntity<CollectionModel<EntityModel<Notification>>> getNotificationsByOrderId(@PathVariable Long orderId) {
+        String base = baseUri();
         List<EntityModel<Notification>> notifications = notificationService.getNotificationsByOrderId(orderId)
             .stream()
-            .map(this::toModel)
+            .map(notification -> toModel(notification, base))
             .collect(Collectors.toList());
         
         CollectionModel<EntityModel<Notification>> collectionModel = CollectionModel.of(notifications);
-        collectionModel.add(linkTo(methodOn(NotificationController.class).getNotificationsByOrderId(orderId)).withSelfRel());
+        collectionModel.add(Link.of(base + "/api/notifications/order/" + orderId).withSelfRel());
         
         return ResponseEntity.ok(collectionModel);
     }
@@ -69,13 +71,14 @@ public class NotificationController {
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
     public ResponseEntity<CollectionModel<EntityModel<Notification>>> getNotificationsByCustomerId(@PathVariable Long customerId) {
+        String base = baseUri();
         List<EntityModel<Notification>> notifications = notificationService.getNotificationsByCustomerId(customerId)
             .stream()
-            .map(this::toModel)
+            .map(notification -> toModel(notification, base))
             .collect(Collectors.toList());
         
         CollectionModel<EntityModel<Notification>> collectionModel = CollectionModel.of(notifications);
-        collectionModel.add(linkTo(methodOn(NotificationController.class).getNotificationsByCustomerId(customerId)).withSelfRel());
+        collectionModel.add(Link.of(base + "/api/notifications/customer/" + customerId).withSelfRel());
         
         return ResponseEntity.ok(collectionModel);
     }
@@ -102,10 +105,20 @@ public class NotificationController {
     }
     
     private EntityModel<Notification> toModel(Notification notification) {
+        return toModel(notification, baseUri());
+    }
+    
+    // Order and customer lists can run to hundreds of items, four links each: plain string
+    // concatenation here instead of a linkTo(methodOn(...)) proxy per link
+    private EntityModel<Notification> toModel(Notification notification, String baseUri) {
         return EntityModel.of(notification,
-            linkTo(methodOn(NotificationController.class).getNotification(notification.getId())).withSelfRel(),
-            linkTo(methodOn(NotificationController.class).getAllNotifications()).withRel("notifications"),
-            linkTo(methodOn(NotificationController.class).getNotificationsByOrderId(notification.getOrderId())).withRel("order-notifications"),
-            linkTo(methodOn(NotificationController.class).getNotificationsByCustomerId(notification.getCustomerId())).withRel("customer-notifications"));
+            Link.of(baseUri + "/api/notifications/" + notification.getId()).withSelfRel(),
+            Link.of(baseUri + "/api/notifications", "notifications"),
+            Link.of(baseUri + "/api/notifications/order/" + notification.getOrderId(), "order-notifications"),
+            Link.of(baseUri + "/api/notifications/customer/" + notification.getCustomerId(), "customer-notifications"));
+    }
+    
+    private static String baseUri() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
     }
 }
\ No newline at end of file
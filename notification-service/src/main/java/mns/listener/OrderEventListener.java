@@ -1,48 +1,146 @@
 package mns.listener;
 
-import mns.events.OrderEvent;
+import com.example.events.OrderEvent;
 import mns.model.Notification;
+import mns.repository.NotificationBatchWriter;
 import mns.repository.NotificationRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 public class OrderEventListener {
     private static final Logger log = LoggerFactory.getLogger(OrderEventListener.class);
+    private static final LogAccessor deserializationLog = new LogAccessor(OrderEventListener.class);
+    private static final String ORDER_CREATED = "ORDER_CREATED";
     private final NotificationRepository notificationRepository;
+    private final NotificationBatchWriter notificationBatchWriter;
     
-    public OrderEventListener(NotificationRepository notificationRepository) {
+    public OrderEventListener(NotificationRepository notificationRepository,
+                              NotificationBatchWriter notificationBatchWriter) {
         this.notificationRepository = notificationRepository;
+        this.notificationBatchWriter = notificationBatchWriter;
     }
     
-    @KafkaListener(topics = "order-created", groupId = "notification-service-group")
+    @RetryableTopic(
+        attempts = "${kafka.retry.attempts:4}",
+        backoff = @Backoff(delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+                           multiplierExpression = "${kafka.retry.multiplier:2.0}",
+                           maxDelayExpression = "${kafka.retry.max-delay-ms:30000}"),
+        retryTopicSuffix = OrderEventRetryTopics.RETRY_SUFFIX,
+        dltTopicSuffix = OrderEventRetryTopics.DLT_SUFFIX,
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        numPartitions = "${kafka.topics.order-created.partitions:6}",
+        kafkaTemplate = "kafkaTemplate")
+    @KafkaListener(id = OrderEventRetryTopics.LISTENER_ID, topics = OrderEventRetryTopics.MAIN_TOPIC,
+                   groupId = "notification-service-group",
+                   autoStartup = "#{!${kafka.listener.batch:false}}")
     public void handleOrderCreated(OrderEvent event) {
         log.info("Notification service received order event: {}", event.getOrderId());
+        sendNotification(event);
+    }
+    
+    // Batch mode: one existence lookup and one JDBC batch insert per poll
+    @KafkaListener(topics = OrderEventRetryTopics.MAIN_TOPIC, groupId = "notification-service-group",
+                   containerFactory = "batchKafkaListenerContainerFactory",
+                   autoStartup = "${kafka.listener.batch:false}")
+    public void handleOrderCreatedBatch(List<ConsumerRecord<String, OrderEvent>> records) {
+        List<OrderEvent> events = decoded(records);
+        log.info("Notification service received {} order events", events.size());
         
         try {
-            // Create notification
-            Notification notification = new Notification();
-            notification.setOrderId(event.getOrderId());
-            notification.setCustomerId(event.getCustomerId());
-            notification.setMessage(String.format(
-                "Your order #%d has been created successfully! Total amount: $%.2f. " +
-                "We'll notify you once it ships. Thank you for your purchase!",
-                event.getOrderId(),
-                event.getTotalAmount()
-            ));
-            notification.setType("ORDER_CREATED");
-            notification.setStatus("SENT");
-            notification.setChannel("EMAIL");
+            Map<Long, OrderEvent> byOrderId = new LinkedHashMap<>();
+            for (OrderEvent event : events) {
+                byOrderId.putIfAbsent(event.getOrderId(), event);
+            }
+            
+            // Skip orders that were already notified by an earlier (re)delivery
+            notificationRepository.findByOrderIdIn(byOrderId.keySet()).stream()
+                .filter(existing -> ORDER_CREATED.equals(existing.getType()))
+                .forEach(existing -> byOrderId.remove(existing.getOrderId()));
             
-            notification = notificationRepository.save(notification);
+            List<Notification> notifications = byOrderId.values().stream()
+                .map(this::newNotification)
+                .toList();
+            notificationBatchWriter.insertAll(notifications);
             
-            log.info("Notification sent successfully: {} for order: {} to customer: {}", 
-                    notification.getId(), event.getOrderId(), event.getCustomerId());
+            log.info("Notifications sent successfully for {} orders ({} skipped as duplicates)", 
+                    notifications.size(), events.size() - notifications.size());
             
         } catch (Exception e) {
-            log.error("Error sending notification for order {}: {}", event.getOrderId(), e.getMessage(), e);
+            log.warn("Notification batch of {} events failed, sending individually: {}", 
+                    events.size(), e.getMessage());
+            for (int i = 0; i < events.size(); i++) {
+                try {
+                    sendNotification(events.get(i));
+                } catch (Exception failure) {
+                    throw new BatchListenerFailedException(
+                        "Notification failed for order " + events.get(i).getOrderId(), failure, i);
+                }
+            }
+        }
+    }
+    
+    // ErrorHandlingDeserializer leaves undecodable records in the batch with a null value; failing
+    // on the first one hands it to the DLT and redelivers the records after it
+    private static List<OrderEvent> decoded(List<ConsumerRecord<String, OrderEvent>> records) {
+        List<OrderEvent> events = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            DeserializationException failure = SerializationUtils.getExceptionFromHeader(records.get(i),
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, deserializationLog);
+            if (failure != null) {
+                throw new BatchListenerFailedException("Undecodable order event at offset "
+                    + records.get(i).offset(), failure, i);
+            }
+            events.add(records.get(i).value());
         }
+        return events;
+    }
+    
+    @DltHandler
+    public void handleDeadLetter(OrderEvent event,
+                                 @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+        log.error("Giving up on notification for order {} ({}): {}", 
+                event.getOrderId(), OrderEventRetryTopics.DLT_TOPIC, error);
+    }
+    
+    private void sendNotification(OrderEvent event) {
+        Notification notification = notificationRepository.save(newNotification(event));
+        
+        log.info("Notification sent successfully: {} for order: {} to customer: {}", 
+                notification.getId(), event.getOrderId(), event.getCustomerId());
+    }
+    
+    private Notification newNotification(OrderEvent event) {
+        Notification notification = new Notification();
+        notification.setOrderId(event.getOrderId());
+        notification.setCustomerId(event.getCustomerId());
+        notification.setMessage(String.format(
+            "Your order #%d has been created successfully! Total amount: $%.2f. " +
+            "We'll notify you once it ships. Thank you for your purchase!",
+            event.getOrderId(),
+            event.getTotalAmount()
+        ));
+        notification.setType(ORDER_CREATED);
+        notification.setStatus("SENT");
+        notification.setChannel("EMAIL");
+        return notification;
     }
-}
\ No newline at end of file
+}
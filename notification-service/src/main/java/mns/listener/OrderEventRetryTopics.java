@@ -0,0 +1,47 @@
+package mns.listener;
+
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Notification-scoped retry and dead-letter topics for order-created.
+ */
+@Component
+public class OrderEventRetryTopics {
+    public static final String MAIN_TOPIC = "order-created";
+    public static final String LISTENER_ID = "notification-order-created";
+    public static final String RETRY_SUFFIX = "-notification-retry";
+    public static final String DLT_SUFFIX = "-notification-dlt";
+    public static final String FIRST_RETRY_TOPIC = MAIN_TOPIC + RETRY_SUFFIX + "-0";
+    public static final String DLT_TOPIC = MAIN_TOPIC + DLT_SUFFIX;
+    
+    private final KafkaListenerEndpointRegistry registry;
+    private final boolean batchMode;
+    
+    public OrderEventRetryTopics(KafkaListenerEndpointRegistry registry,
+                                 @Value("${kafka.listener.batch:false}") boolean batchMode) {
+        this.registry = registry;
+        this.batchMode = batchMode;
+    }
+    
+    // Retry/DLT containers are needed in batch mode too
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRetryContainersInBatchMode() {
+        if (!batchMode) {
+            return;
+        }
+        Collection<MessageListenerContainer> containers = registry.getListenerContainers();
+        for (MessageListenerContainer container : containers) {
+            String id = container.getListenerId();
+            if (id != null && id.startsWith(LISTENER_ID + "-") && !container.isRunning()) {
+                container.start();
+            }
+        }
+    }
+}
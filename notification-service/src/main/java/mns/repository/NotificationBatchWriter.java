@@ -0,0 +1,34 @@
+package mns.repository;
+
+import jakarta.persistence.EntityManager;
+import mns.model.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// With ids drawn from the pooled notifications_seq, Hibernate sends these as JDBC batches, and
+// rewriteBatchedStatements lets the MySQL driver fold each batch into multi-row INSERTs
+@Repository
+public class NotificationBatchWriter {
+    private final EntityManager entityManager;
+    private final int batchSize;
+    
+    public NotificationBatchWriter(EntityManager entityManager,
+                                   @Value("${notifications.insert-batch-size:500}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+    
+    @Transactional
+    public void insertAll(List<Notification> notifications) {
+        for (int i = 0; i < notifications.size(); i++) {
+            entityManager.persist(notifications.get(i));
+            if ((i + 1) % batchSize == 0 || i == notifications.size() - 1) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+    }
+}
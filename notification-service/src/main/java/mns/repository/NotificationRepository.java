@@ -4,10 +4,12 @@ import mns.model.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByOrderId(Long orderId);
     List<Notification> findByCustomerId(Long customerId);
-}
\ No newline at end of file
+    List<Notification> findByOrderIdIn(Collection<Long> orderIds);
+}
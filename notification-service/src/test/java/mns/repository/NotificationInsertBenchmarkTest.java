@@ -0,0 +1,101 @@
+package mns.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import mns.model.Notification;
+
+/**
+ * Insert throughput before and after the move from AUTO_INCREMENT to the pooled notifications_seq,
+ * against a MySQL scratch database (both runs are rolled back):
+ *
+ * mvn test -Dtest=NotificationInsertBenchmarkTest -Dnotifications.benchmark.jdbc-url=jdbc:mysql://localhost:3307/notification_bench?rewriteBatchedStatements=true
+ *
+ * Run it once more without rewriteBatchedStatements to see what the driver-side rewrite adds.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(NotificationBatchWriter.class)
+@EnabledIfSystemProperty(named = "notifications.benchmark.jdbc-url", matches = ".+")
+class NotificationInsertBenchmarkTest {
+    private static final int ROWS = 20_000;
+
+    @Autowired
+    private NotificationBatchWriter notificationBatchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("notifications.benchmark.jdbc-url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("notifications.benchmark.user", "root"));
+        registry.add("spring.datasource.password",
+            () -> System.getProperty("notifications.benchmark.password", "password"));
+    }
+
+    @Test
+    void pooledIdsWithBatchingOutrunAutoIncrementInserts() {
+        // Before: what Hibernate sent for IDENTITY keys, one INSERT plus generated-key read per row
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            long orderId = i;
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement("""
+                    INSERT INTO notifications (order_id, customer_id, message, type, status, channel, sent_at, created_at)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?)""", Statement.RETURN_GENERATED_KEYS);
+                ps.setLong(1, orderId);
+                ps.setLong(2, orderId % 1000);
+                ps.setString(3, "Order " + orderId + " received");
+                ps.setString(4, "ORDER_CREATED");
+                ps.setString(5, "SENT");
+                ps.setString(6, "EMAIL");
+                ps.setTimestamp(7, now);
+                ps.setTimestamp(8, now);
+                return ps;
+            }, new GeneratedKeyHolder());
+        }
+        double autoIncrementSeconds = (System.nanoTime() - start) / 1e9;
+
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Notification notification = new Notification();
+            notification.setOrderId((long) i);
+            notification.setCustomerId((long) i % 1000);
+            notification.setMessage("Order " + i + " received");
+            notification.setType("ORDER_CREATED");
+            notification.setStatus("SENT");
+            notification.setChannel("EMAIL");
+            notifications.add(notification);
+        }
+        start = System.nanoTime();
+        notificationBatchWriter.insertAll(notifications);
+        double pooledSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d notifications: AUTO_INCREMENT row-by-row %.0f rows/s | pooled + batching %.0f rows/s%n",
+            ROWS, ROWS / autoIncrementSeconds, ROWS / pooledSeconds);
+
+        assertEquals(ROWS, notifications.stream().map(Notification::getId).distinct().count());
+        assertTrue(pooledSeconds < autoIncrementSeconds,
+            "batched " + pooledSeconds + "s vs row-by-row " + autoIncrementSeconds + "s");
+    }
+}
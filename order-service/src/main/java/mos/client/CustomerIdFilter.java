@@ -0,0 +1,68 @@
+package mos.client;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over a snapshot of customer ids: "no" is definite, "yes" may be a false positive.
+ * Ids above the snapshot's highest id are always let through, since they may belong to customers
+ * created after it was taken. Later ids can be added concurrently with lookups, but they do not
+ * move that bound: a missed add must not turn a newer customer into a definite "no".
+ */
+final class CustomerIdFilter {
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long snapshotMaxId;
+
+    private CustomerIdFilter(long expectedIds, double falsePositiveRate, long snapshotMaxId) {
+        long bits = (long) Math.ceil(-expectedIds * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.min((bits + 63) / 64, Integer.MAX_VALUE - 8));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedIds * Math.log(2)));
+        this.snapshotMaxId = snapshotMaxId;
+    }
+
+    // Sized with room for the customer base to double before the false positive rate degrades
+    static CustomerIdFilter of(Collection<Long> ids, double falsePositiveRate) {
+        long maxId = ids.stream().mapToLong(Long::longValue).max().orElse(Long.MIN_VALUE);
+        CustomerIdFilter filter = new CustomerIdFilter(Math.max(2L * ids.size(), 1024), falsePositiveRate, maxId);
+        ids.forEach(filter::add);
+        return filter;
+    }
+
+    void add(long id) {
+        long hash = mix(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            words.getAndUpdate(word, w -> w | mask);
+        }
+    }
+
+    boolean mightContain(long id) {
+        if (id > snapshotMaxId) {
+            return true;
+        }
+        long hash = mix(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // SplitMix64 finalizer: sequential ids spread over the whole 64-bit range
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
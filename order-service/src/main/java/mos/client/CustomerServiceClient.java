@@ -1,46 +1,142 @@
 package mos.client;
 
 import java.time.Duration;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import reactor.core.publisher.Mono;
+
 @Component
 public class CustomerServiceClient {
     private static final Logger log = LoggerFactory.getLogger(CustomerServiceClient.class);
+    private static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
     private final WebClient webClient;
-    
+    // Existence answers: customers are rarely deleted, so "exists" is kept far longer than "unknown"
+    private final AsyncCache<Long, Boolean> existence;
+    private final boolean prefilterEnabled;
+    private final double prefilterFalsePositiveRate;
+    // Null until a load of the known ids succeeds; replaced by every later load
+    private volatile CustomerIdFilter knownIds;
+
     public CustomerServiceClient(WebClient.Builder webClientBuilder,
-                                @Value("${services.customer.url:http://localhost:8083}") String customerServiceUrl) {
+                                @Value("${services.customer.url:http://localhost:8083}") String customerServiceUrl,
+                                @Value("${services.customer.cache.positive-ttl:1h}") Duration positiveTtl,
+                                @Value("${services.customer.cache.negative-ttl:30s}") Duration negativeTtl,
+                                @Value("${services.customer.cache.max-entries:100000}") long maxEntries,
+                                @Value("${services.customer.prefilter.enabled:true}") boolean prefilterEnabled,
+                                @Value("${services.customer.prefilter.false-positive-rate:0.01}") double prefilterFalsePositiveRate,
+                                @Value("${services.customer.service-token:}") String serviceToken) {
+        boolean hasServiceToken = StringUtils.hasText(serviceToken);
         this.webClient = webClientBuilder
             .baseUrl(customerServiceUrl)
+            .defaultHeaders(headers -> {
+                if (hasServiceToken) {
+                    headers.set(SERVICE_TOKEN_HEADER, serviceToken);
+                }
+            })
             .build();
+        this.existence = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(Expiry.creating((Long id, Boolean exists) -> exists ? positiveTtl : negativeTtl))
+            .buildAsync();
+        // /api/customers/ids is not open to anonymous callers, so without a token the load could only fail
+        this.prefilterEnabled = prefilterEnabled && hasServiceToken;
+        if (prefilterEnabled && !hasServiceToken) {
+            log.warn("Known-id filter is off: services.customer.service-token is not set");
+        }
+        this.prefilterFalsePositiveRate = prefilterFalsePositiveRate;
     }
-    
+
     public boolean customerExists(Long customerId) {
-        try {
-            log.info("Checking if customer exists: {}", customerId);
-            
-            webClient.get()
-                .uri("/api/customers/{id}", customerId)
-                .retrieve()
-                .bodyToMono(String.class)
-                .timeout(Duration.ofSeconds(5))
-                .block();
-            
-            log.info("Customer {} exists", customerId);
-            return true;
-            
-        } catch (WebClientResponseException.NotFound e) {
-            log.warn("Customer {} not found", customerId);
-            return false;
-        } catch (Exception e) {
-            log.error("Error checking customer {}: {}", customerId, e.getMessage());
-            return false;
+        Boolean exists = customerExistsAsync(customerId)
+            .timeout(Duration.ofSeconds(5))
+            .onErrorResume(e -> {
+                log.error("Error checking customer {}: {}", customerId, e.getMessage());
+                return Mono.just(false);
+            })
+            .block();
+        return Boolean.TRUE.equals(exists);
+    }
+
+    // Non-blocking variant; the caller owns the deadline
+    public Mono<Boolean> customerExistsAsync(Long customerId) {
+        log.info("Checking if customer exists: {}", customerId);
+
+        CustomerIdFilter filter = knownIds;
+        if (filter != null && !filter.mightContain(customerId)) {
+            log.warn("Customer {} not found (known-id filter)", customerId);
+            return Mono.just(false);
+        }
+        // Errors are not cached; a caller giving up does not cancel the shared lookup
+        return Mono.fromFuture(() -> existence.get(customerId, (id, executor) -> fetch(id).toFuture()), true)
+            .onErrorResume(e -> {
+                log.error("Error checking customer {}: {}", customerId, e.getMessage());
+                return Mono.just(false);
+            });
+    }
+
+    // Kept in sync by customer-service events (see CustomerEventListener)
+    public void onCustomerCreated(Long customerId) {
+        CustomerIdFilter filter = knownIds;
+        if (filter != null) {
+            filter.add(customerId);
         }
+        existence.synchronous().invalidate(customerId);
+    }
+
+    public void onCustomerDeleted(Long customerId) {
+        existence.synchronous().invalidate(customerId);
+    }
+
+    // Ids above the snapshot always go to customer-service, so a missed created event costs a
+    // lookup, not a rejection. The reload picks up ids at or below the snapshot's highest that
+    // were not yet committed when it was read (or whose created event was missed).
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${services.customer.prefilter.reload-interval-ms:600000}",
+               fixedDelayString = "${services.customer.prefilter.reload-interval-ms:600000}")
+    public void loadKnownIds() {
+        if (!prefilterEnabled) {
+            return;
+        }
+        webClient.get()
+            .uri("/api/customers/ids")
+            .retrieve()
+            .bodyToMono(new ParameterizedTypeReference<List<Long>>() {})
+            .timeout(Duration.ofSeconds(30))
+            .subscribe(ids -> {
+                knownIds = CustomerIdFilter.of(ids, prefilterFalsePositiveRate);
+                log.info("Known-id filter loaded with {} customers", ids.size());
+            }, e -> log.warn("Could not load customer ids, known-id filter left as it was: {}", e.getMessage()));
+    }
+
+    // HEAD: customer-service answers from the primary key alone, without building the HAL body
+    private Mono<Boolean> fetch(Long customerId) {
+        return webClient.head()
+            .uri("/api/customers/{id}", customerId)
+            .retrieve()
+            .toBodilessEntity()
+            .map(response -> {
+                log.info("Customer {} exists", customerId);
+                return true;
+            })
+            .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                log.warn("Customer {} not found", customerId);
+                return Mono.just(false);
+            });
     }
-}
\ No newline at end of file
+}
@@ -1,65 +1,137 @@
 package mos.client;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import reactor.core.publisher.Mono;
+
 @Component
 public class InventoryServiceClient {
     private static final Logger log = LoggerFactory.getLogger(InventoryServiceClient.class);
+    private static final Snapshot NOT_FOUND = new Snapshot(false, 0.0, 0);
     private final WebClient webClient;
+    private final Duration fetchTimeout;
+    // Last known price/stock per product; null when the cache is disabled (ttl 0)
+    private final AsyncLoadingCache<String, Snapshot> snapshots;
+
+    private record Snapshot(boolean found, Double price, int quantity) {}
     
+    /**
+     * Product lookups go through a short-lived snapshot cache. Within ttl a snapshot is served
+     * as is; after that it is still served while a background refresh fetches a new one, and a
+     * failed refresh keeps the old snapshot until it is max-stale old. Concurrent misses for the
+     * same product share a single request.
+     */
     public InventoryServiceClient(WebClient.Builder webClientBuilder,
-                                 @Value("${services.inventory.url:http://localhost:8082}") String inventoryServiceUrl) {
+                                 @Value("${services.inventory.url:http://localhost:8082}") String inventoryServiceUrl,
+                                 @Value("${services.inventory.cache.ttl:2s}") Duration ttl,
+                                 @Value("${services.inventory.cache.max-stale:30s}") Duration maxStale,
+                                 @Value("${services.inventory.cache.max-entries:10000}") long maxEntries,
+                                 @Value("${services.inventory.cache.fetch-timeout:5s}") Duration fetchTimeout) {
         this.webClient = webClientBuilder
             .baseUrl(inventoryServiceUrl)
             .build();
+        this.fetchTimeout = fetchTimeout;
+        this.snapshots = ttl.isZero() ? null : Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .refreshAfterWrite(ttl)
+            .expireAfterWrite(maxStale)
+            .buildAsync((productId, executor) -> fetch(productId).toFuture());
     }
     
     public ProductInfo checkInventory(String productId, Integer quantity) {
-        try {
-            log.info("Checking inventory for product {}, quantity {}", productId, quantity);
-            
-            ProductResponse response = webClient.get()
-                .uri("/api/inventory/{id}", productId)
-                .retrieve()
-                .bodyToMono(ProductResponse.class)
-                .timeout(Duration.ofSeconds(5))
-                .block();
-            
-            if (response == null) {
-                log.error("Product {} not found", productId);
-                return new ProductInfo(false, 0.0);
-            }
-            
-            boolean available = response.getQuantity() >= quantity;
-            log.info("Product {} available: {}, quantity: {}, price: {}", 
-                    productId, available, response.getQuantity(), response.getPrice());
-            
-            return new ProductInfo(available, response.getPrice());
-            
-        } catch (WebClientResponseException.NotFound e) {
-            log.warn("Product {} not found", productId);
-            return new ProductInfo(false, 0.0);
-        } catch (Exception e) {
-            log.error("Error checking inventory for product {}: {}", productId, e.getMessage());
-            return new ProductInfo(false, 0.0);
-        }
+        return checkInventoryAsync(productId, quantity)
+            .timeout(Duration.ofSeconds(5))
+            .onErrorResume(e -> {
+                log.error("Error checking inventory for product {}: {}", productId, e.getMessage());
+                return Mono.just(new ProductInfo(false, 0.0));
+            })
+            .block();
+    }
+    
+    // Non-blocking variant; the caller owns the deadline
+    public Mono<ProductInfo> checkInventoryAsync(String productId, Integer quantity) {
+        log.info("Checking inventory for product {}, quantity {}", productId, quantity);
+        
+        // A caller giving up must not cancel a load other callers are waiting on
+        Mono<Snapshot> snapshot = snapshots == null
+            ? fetch(productId)
+            : Mono.fromFuture(() -> snapshots.get(productId), true);
+        return snapshot
+            .map(s -> {
+                if (!s.found()) {
+                    log.warn("Product {} not found", productId);
+                    return new ProductInfo(false, 0.0);
+                }
+                boolean available = s.quantity() >= quantity;
+                log.info("Product {} available: {}, quantity: {}, price: {}", 
+                        productId, available, s.quantity(), s.price());
+                return new ProductInfo(available, s.price(), s.quantity());
+            })
+            .onErrorResume(e -> {
+                log.error("Error checking inventory for product {}: {}", productId, e.getMessage());
+                return Mono.just(new ProductInfo(false, 0.0));
+            });
+    }
+    
+    // Unknown products are a valid answer and get cached; errors propagate so a refresh
+    // that fails leaves the previous snapshot in place
+    private Mono<Snapshot> fetch(String productId) {
+        return webClient.get()
+            .uri("/api/inventory/{id}", productId)
+            // Compact representation: only price and quantity are read, the links would be discarded
+            .accept(MediaType.APPLICATION_JSON)
+            .retrieve()
+            .bodyToMono(ProductResponse.class)
+            .map(response -> new Snapshot(true, response.getPrice(), response.getQuantity()))
+            .defaultIfEmpty(NOT_FOUND)
+            .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(NOT_FOUND))
+            .timeout(fetchTimeout);
+    }
+    
+    // Stock and price of many products in one round trip (POST /api/inventory/lookup).
+    // Unknown products are missing from the map; on any error the map is empty.
+    public Mono<Map<String, ProductResponse>> lookupAsync(Collection<String> productIds) {
+        log.info("Looking up {} products", productIds.size());
+        
+        return webClient.post()
+            .uri("/api/inventory/lookup")
+            .bodyValue(productIds)
+            .retrieve()
+            .bodyToFlux(ProductResponse.class)
+            .collectMap(ProductResponse::getId)
+            .onErrorResume(e -> {
+                log.error("Error looking up {} products: {}", productIds.size(), e.getMessage());
+                return Mono.just(Map.of());
+            });
     }
     
     // Inner class for product info result
     public static class ProductInfo {
         private final boolean available;
         private final Double price;
+        private final int stock;
         
         public ProductInfo(boolean available, Double price) {
+            this(available, price, 0);
+        }
+        
+        public ProductInfo(boolean available, Double price, int stock) {
             this.available = available;
             this.price = price;
+            this.stock = stock;
         }
         
         public boolean isAvailable() {
@@ -69,10 +141,15 @@ public class InventoryServiceClient {
         public Double getPrice() {
             return price;
         }
+        
+        // Units in stock when checked (0 if the product is unknown)
+        public int getStock() {
+            return stock;
+        }
     }
     
     // Inner class for deserializing product response
-    static class ProductResponse {
+    public static class ProductResponse {
         private String id;  // MongoDB uses String IDs
         private String name;
         private Integer quantity;
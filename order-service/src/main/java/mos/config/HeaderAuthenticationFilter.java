@@ -41,6 +41,13 @@ public class HeaderAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Streamed responses (NDJSON order export) finish on an async dispatch, which must be
+    // authenticated from the same headers
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
     private java.util.Collection<GrantedAuthority> parseRoles(String rolesHeader) {
         java.util.Collection<GrantedAuthority> authorities = new java.util.ArrayList<>();
         if (StringUtils.hasText(rolesHeader)) {
@@ -0,0 +1,115 @@
+package mos.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.backoff.FixedBackOff;
+
+import com.example.events.OrderEvent;
+import com.example.events.OrderEventDeserializer;
+
+@Configuration
+public class KafkaConsumerConfig {
+    private static final Logger log = LoggerFactory.getLogger(KafkaConsumerConfig.class);
+    
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    @Value("${kafka.status-listener.concurrency:3}")
+    private int statusConcurrency;
+    
+    @Value("${kafka.status-listener.max-poll-records:500}")
+    private int statusMaxPollRecords;
+    
+    @Value("${kafka.status-listener.retry-interval-ms:1000}")
+    private long statusRetryIntervalMs;
+    
+    // Cache invalidations must reach every instance, so each one joins its own group and
+    // only reads events published after it started
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> customerEventsListenerContainerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, "order-service-customer-cache-" + UUID.randomUUID());
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(config));
+        useListenerThreads(factory);
+        return factory;
+    }
+    
+    // Payment and shipment results for the order status projection. One shared group: the
+    // projection lives in the database, so each event needs applying by one instance only.
+    // A poll that fails because the database is unavailable is retried as a whole until it
+    // succeeds; applying it twice changes nothing, while skipping it would leave orders stuck in
+    // their previous status. Any other failure would fail the same way forever, so it is logged
+    // and the poll skipped.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> orderStatusListenerContainerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, "order-service-status");
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // Undecodable events reach the listener as null values, which it ignores
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, OrderEventDeserializer.class);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, statusMaxPollRecords);
+        
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(config));
+        useListenerThreads(factory);
+        factory.setConcurrency(statusConcurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(statusErrorHandler());
+        return factory;
+    }
+    
+    private DefaultErrorHandler statusErrorHandler() {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+            (record, ex) -> log.error("Skipping {} event at offset {} after non-retryable failure",
+                record.topic(), record.offset(), ex),
+            new FixedBackOff(statusRetryIntervalMs, FixedBackOff.UNLIMITED_ATTEMPTS));
+        errorHandler.defaultFalse();
+        errorHandler.addRetryableExceptions(TransientDataAccessException.class, RecoverableDataAccessException.class,
+            DataAccessResourceFailureException.class, CannotCreateTransactionException.class);
+        return errorHandler;
+    }
+    
+    // With spring.threads.virtual.enabled the consumer loop runs on a virtual thread too;
+    // Boot only does that for the factory it creates itself
+    private void useListenerThreads(ConcurrentKafkaListenerContainerFactory<?, ?> factory) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("order-kafka-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
+}
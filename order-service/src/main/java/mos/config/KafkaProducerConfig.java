@@ -1,5 +1,6 @@
 package mos.config;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -11,9 +12,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
-import mos.events.OrderEvent;
+import com.example.events.OrderEvent;
+import com.example.events.OrderEventSerializer;
 
 @Configuration
 public class KafkaProducerConfig {
@@ -21,12 +22,37 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
     
+    @Value("${kafka.producer.event-format:binary}")
+    private String eventFormat;
+    
+    @Value("${kafka.producer.compression-type:lz4}")
+    private String compressionType;
+    
+    @Value("${kafka.producer.linger-ms:20}")
+    private int lingerMs;
+    
+    @Value("${kafka.producer.batch-size:65536}")
+    private int batchSize;
+    
+    @Value("${outbox.relay.send-timeout:10s}")
+    private Duration sendTimeout;
+    
     @Bean
     public ProducerFactory<String, OrderEvent> producerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, OrderEventSerializer.class);
+        config.put(OrderEventSerializer.FORMAT_CONFIG, eventFormat);
+        // Idempotent, compressed, linger-batched: the outbox relay sends whole batches at once
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        // send() waits for metadata at most this long, so a broker outage fails the relay's batch
+        // quickly instead of blocking it (and the rows it has locked) for the default minute
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, (int) sendTimeout.toMillis());
         return new DefaultKafkaProducerFactory<>(config);
     }
     
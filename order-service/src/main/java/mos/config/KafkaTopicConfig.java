@@ -1,6 +1,7 @@
 package mos.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -8,11 +9,19 @@ import org.springframework.kafka.config.TopicBuilder;
 @Configuration
 public class KafkaTopicConfig {
     
+    // Partitions bound the consumer parallelism downstream; records are keyed by order id,
+    // so all events of one order land on the same partition and stay in order
+    @Value("${kafka.topics.order-created.partitions:6}")
+    private int orderCreatedPartitions;
+    
+    @Value("${kafka.topics.order-created.replicas:1}")
+    private int orderCreatedReplicas;
+    
     @Bean
     public NewTopic orderCreatedTopic() {
         return TopicBuilder.name("order-created")
-                .partitions(1)
-                .replicas(1)
+                .partitions(orderCreatedPartitions)
+                .replicas(orderCreatedReplicas)
                 .build();
     }
 }
\ No newline at end of file
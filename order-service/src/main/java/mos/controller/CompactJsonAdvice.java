@@ -0,0 +1,48 @@
+package mos.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Compact representation: a client that asks for plain application/json gets the bare entities,
+ * without _links. HAL stays the default for every other Accept header. A collection's "next"
+ * link, the only one needed to page, moves to a Link response header.
+ * Relies on spring.hateoas.use-hal-as-default-json-media-type=false.
+ */
+@RestControllerAdvice
+public class CompactJsonAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!MediaType.APPLICATION_JSON.equalsTypeAndSubtype(selectedContentType)) {
+            return body;
+        }
+        if (body instanceof EntityModel<?> model) {
+            return model.getContent();
+        }
+        if (body instanceof CollectionModel<?> collection) {
+            collection.getLink(IanaLinkRelations.NEXT)
+                .ifPresent(next -> response.getHeaders().add(HttpHeaders.LINK, next.toString()));
+            return collection.getContent().stream()
+                .map(item -> item instanceof EntityModel<?> model ? model.getContent() : item)
+                .toList();
+        }
+        return body;
+    }
+}
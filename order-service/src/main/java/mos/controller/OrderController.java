@@ -1,14 +1,17 @@
 package mos.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.Principal;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import org.springframework.hateoas.MediaTypes;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,56 +21,109 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import mos.dto.BatchOrderResponse;
+import mos.dto.OrderPage;
 import mos.dto.OrderRequest;
 import mos.model.Order;
+import mos.service.IdempotencyConflictException;
+import mos.service.IdempotencyService;
 import mos.service.OrderService;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
+    private static final String NDJSON = "application/x-ndjson";
+    
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
     
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, IdempotencyService idempotencyService,
+                           ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
     }
     
     @PostMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
-    public ResponseEntity<EntityModel<Order>> createOrder(@RequestBody OrderRequest request) {
-        Order order = orderService.createOrder(request);
-        EntityModel<Order> model = toModel(order);
-        return ResponseEntity.status(HttpStatus.CREATED).body(model);
+    public ResponseEntity<EntityModel<Order>> createOrder(@RequestBody OrderRequest request,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            Principal principal) {
+        if (idempotencyKey == null) {
+            Order order = orderService.createOrder(request);
+            EntityModel<Order> model = toModel(order, baseUri());
+            return ResponseEntity.status(HttpStatus.CREATED).body(model);
+        }
+        
+        // Retries with the same key get the original order back instead of a new one
+        IdempotencyService.Result result = idempotencyService.execute(
+            principal.getName(), idempotencyKey, request, () -> orderService.createOrder(request));
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+            .body(toModel(result.order(), baseUri()));
+    }
+    
+    // Creates up to orders.batch.max-size orders; each item is reported as CREATED or REJECTED
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
+    public ResponseEntity<BatchOrderResponse> createOrders(@RequestBody List<OrderRequest> requests) {
+        BatchOrderResponse response = orderService.createOrders(requests);
+        HttpStatus status = response.getCreated() > 0 ? HttpStatus.CREATED : HttpStatus.UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status).body(response);
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
     public ResponseEntity<EntityModel<Order>> getOrder(@PathVariable Long id) {
         Order order = orderService.getOrder(id);
-        return ResponseEntity.ok(toModel(order));
+        return ResponseEntity.ok(toModel(order, baseUri()));
     }
     
-    @GetMapping
+    // One page, newest first; follow the "next" link (or pass its cursor) for the following page.
+    // There is no caller-scoped variant: X-User-Id is an authentication-service user id, and
+    // nothing maps it to the customer-service id orders are placed under.
+    @GetMapping(produces = {MediaTypes.HAL_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<CollectionModel<EntityModel<Order>>> getAllOrders() {
-        List<EntityModel<Order>> orders = orderService.getAllOrders()
-            .stream()
-            .map(this::toModel)
-            .collect(Collectors.toList());
-        
-        CollectionModel<EntityModel<Order>> collectionModel = CollectionModel.of(orders);
-        collectionModel.add(linkTo(methodOn(OrderController.class).getAllOrders()).withSelfRel());
-        
-        return ResponseEntity.ok(collectionModel);
+    public ResponseEntity<CollectionModel<EntityModel<Order>>> getAllOrders(
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(toPageModel(orderService.getOrders(status, customerId, cursor, limit)));
+    }
+    
+    // Every matching order as one JSON object per line, read through a database cursor
+    @GetMapping(produces = NDJSON)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamOrders(
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) Long customerId) {
+        StreamingResponseBody body = out -> orderService.streamOrders(status, customerId, order -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(order));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<EntityModel<Order>> updateOrder(@PathVariable Long id, @RequestBody OrderRequest request) {
         Order order = orderService.updateOrder(id, request);
-        return ResponseEntity.ok(toModel(order));
+        return ResponseEntity.ok(toModel(order, baseUri()));
     }
     
     @DeleteMapping("/{id}")
@@ -76,13 +132,35 @@ public class OrderController {
         orderService.deleteOrder(id);
         return ResponseEntity.noContent().build();
     }
+    private CollectionModel<EntityModel<Order>> toPageModel(OrderPage page) {
+        String base = baseUri();
+        List<EntityModel<Order>> orders = page.orders()
+            .stream()
+            .map(order -> toModel(order, base))
+            .toList();
+        
+        CollectionModel<EntityModel<Order>> collectionModel = CollectionModel.of(orders);
+        collectionModel.add(Link.of(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+        if (page.nextCursor() != null) {
+            collectionModel.add(Link.of(ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", page.nextCursor())
+                .toUriString(), IanaLinkRelations.NEXT));
+        }
+        return collectionModel;
+    }
+    
+    // Scheme, host and context path of the current request, resolved once per response
+    // rather than once per link as linkTo(methodOn(...)) does
+    private static String baseUri() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+    }
+    
     // Convert Order to HATEOAS EntityModel with links based on state
-    private EntityModel<Order> toModel(Order order) {
+    private EntityModel<Order> toModel(Order order, String baseUri) {
         EntityModel<Order> model = EntityModel.of(order);
         
         // Self link - always present
-        model.add(linkTo(methodOn(OrderController.class).getOrder(order.getId()))
-            .withSelfRel());
+        model.add(Link.of(baseUri + "/api/orders/" + order.getId()).withSelfRel());
         
         // State-based links - only show actions that are valid for current state
         switch (order.getStatus()) {
@@ -118,6 +196,11 @@ public class OrderController {
         return model;
     }
     
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<String> handleIdempotencyConflict(IdempotencyConflictException e) {
+        return ResponseEntity.status(e.getStatus()).body(e.getMessage());
+    }
+    
     // Exception handler
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleException(RuntimeException e) {
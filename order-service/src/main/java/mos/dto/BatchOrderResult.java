@@ -0,0 +1,35 @@
+package mos.dto;
+
+// Outcome of one item of a POST /api/orders/batch request, in request order
+public class BatchOrderResult {
+    public enum Status { CREATED, REJECTED }
+
+    private final int index;
+    private final Status status;
+    private final Long orderId;
+    private final Double totalAmount;
+    private final String error;
+
+    private BatchOrderResult(int index, Status status, Long orderId, Double totalAmount, String error) {
+        this.index = index;
+        this.status = status;
+        this.orderId = orderId;
+        this.totalAmount = totalAmount;
+        this.error = error;
+    }
+
+    public static BatchOrderResult created(int index, Long orderId, Double totalAmount) {
+        return new BatchOrderResult(index, Status.CREATED, orderId, totalAmount, null);
+    }
+
+    public static BatchOrderResult rejected(int index, String error) {
+        return new BatchOrderResult(index, Status.REJECTED, null, null, error);
+    }
+
+    // Getters
+    public int getIndex() { return index; }
+    public Status getStatus() { return status; }
+    public Long getOrderId() { return orderId; }
+    public Double getTotalAmount() { return totalAmount; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,8 @@
+package mos.dto;
+
+import java.util.List;
+
+import mos.model.Order;
+
+// One page of the order listing; nextCursor is null on the last page
+public record OrderPage(List<Order> orders, String nextCursor) {}
@@ -1,48 +0,0 @@
-package mos.events;
-
-import java.time.LocalDateTime;
-
-public class OrderEvent {
-    private Long orderId;
-    private Long customerId;
-    private String productId;
-    private Integer quantity;
-    private Double totalAmount;
-    private String status;
-    private LocalDateTime timestamp;
-    
-    public OrderEvent() {}
-    
-    public OrderEvent(Long orderId, Long customerId, String productId, 
-                     Integer quantity, Double totalAmount, String status) {
-        this.orderId = orderId;
-        this.customerId = customerId;
-        this.productId = productId;
-        this.quantity = quantity;
-        this.totalAmount = totalAmount;
-        this.status = status;
-        this.timestamp = LocalDateTime.now();
-    }
-    
-    // Getters and Setters
-    public Long getOrderId() { return orderId; }
-    public void setOrderId(Long orderId) { this.orderId = orderId; }
-    
-    public Long getCustomerId() { return customerId; }
-    public void setCustomerId(Long customerId) { this.customerId = customerId; }
-    
-    public String getProductId() { return productId; }
-    public void setProductId(String productId) { this.productId = productId; }
-    
-    public Integer getQuantity() { return quantity; }
-    public void setQuantity(Integer quantity) { this.quantity = quantity; }
-    
-    public Double getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
-    
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
-    
-    public LocalDateTime getTimestamp() { return timestamp; }
-    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
-}
\ No newline at end of file
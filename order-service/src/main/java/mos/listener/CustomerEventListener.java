@@ -0,0 +1,30 @@
+package mos.listener;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import mos.client.CustomerServiceClient;
+
+// Customer created/deleted events from customer-service: key = customer id, value = event type
+@Component
+public class CustomerEventListener {
+    private static final Logger log = LoggerFactory.getLogger(CustomerEventListener.class);
+    private final CustomerServiceClient customerClient;
+    
+    public CustomerEventListener(CustomerServiceClient customerClient) {
+        this.customerClient = customerClient;
+    }
+    
+    @KafkaListener(topics = "customer-events", containerFactory = "customerEventsListenerContainerFactory")
+    public void onCustomerEvent(ConsumerRecord<String, String> record) {
+        Long customerId = Long.valueOf(record.key());
+        switch (record.value()) {
+            case "CREATED" -> customerClient.onCustomerCreated(customerId);
+            case "DELETED" -> customerClient.onCustomerDeleted(customerId);
+            default -> log.warn("Ignoring customer event {} for customer {}", record.value(), customerId);
+        }
+    }
+}
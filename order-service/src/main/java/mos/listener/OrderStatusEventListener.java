@@ -0,0 +1,74 @@
+package mos.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.example.events.OrderEvent;
+import mos.model.Order.OrderStatus;
+import mos.service.OrderStatusProjection;
+import mos.service.OrderStatusProjection.StatusChange;
+
+// Payment and shipment results, keyed by order id; each poll is applied as one batch
+@Component
+public class OrderStatusEventListener {
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusEventListener.class);
+    public static final String PAYMENT_COMPLETED_TOPIC = "payment-completed";
+    public static final String SHIPMENT_UPDATED_TOPIC = "shipment-updated";
+
+    private final OrderStatusProjection projection;
+
+    public OrderStatusEventListener(OrderStatusProjection projection) {
+        this.projection = projection;
+    }
+
+    @KafkaListener(topics = {PAYMENT_COMPLETED_TOPIC, SHIPMENT_UPDATED_TOPIC},
+                   containerFactory = "orderStatusListenerContainerFactory")
+    public void handleStatusEvents(List<ConsumerRecord<String, OrderEvent>> records) {
+        List<StatusChange> changes = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, OrderEvent> record : records) {
+            OrderEvent event = record.value();
+            OrderStatus status = event == null || event.getOrderId() == null
+                ? null
+                : toOrderStatus(record.topic(), event.getStatus());
+            if (status == null) {
+                log.warn("Ignoring {} event at offset {}: {}", record.topic(), record.offset(),
+                    event == null ? "no decodable value" : "status " + event.getStatus());
+                continue;
+            }
+            changes.add(new StatusChange(event.getOrderId(), status));
+        }
+        if (!changes.isEmpty()) {
+            projection.apply(changes);
+        }
+    }
+
+    // Payment and shipment statuses in order terms; null for ones that say nothing about the order
+    static OrderStatus toOrderStatus(String topic, String status) {
+        if (status == null) {
+            return null;
+        }
+        if (PAYMENT_COMPLETED_TOPIC.equals(topic)) {
+            return switch (status) {
+                case "PENDING", "PROCESSING" -> OrderStatus.PAYMENT_PROCESSING;
+                case "COMPLETED" -> OrderStatus.PAID;
+                case "FAILED", "DECLINED" -> OrderStatus.FAILED;
+                default -> null;
+            };
+        }
+        if (SHIPMENT_UPDATED_TOPIC.equals(topic)) {
+            return switch (status) {
+                case "PENDING", "PROCESSING" -> OrderStatus.SHIPPING;
+                case "SHIPPED", "IN_TRANSIT" -> OrderStatus.SHIPPED;
+                case "DELIVERED" -> OrderStatus.DELIVERED;
+                default -> null;
+            };
+        }
+        return null;
+    }
+}
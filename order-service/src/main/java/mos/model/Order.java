@@ -9,20 +9,32 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    // Keyset pagination and streaming of GET /api/orders, unfiltered, by status and by customer
+    @Index(name = "idx_orders_created_id", columnList = "created_at, id"),
+    @Index(name = "idx_orders_status_created_id", columnList = "status, created_at, id"),
+    @Index(name = "idx_orders_customer_created_id", columnList = "customer_id, created_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
+// Updates write only the changed columns: editing an order never writes back a status that
+// OrderStatusProjection has moved on since the order was read
+@DynamicUpdate
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "customer_id", nullable = false)
@@ -47,7 +59,7 @@ public class Order {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    // Enum for order status
+    // Enum for order status, declared in lifecycle order
     public enum OrderStatus {
         PENDING,
         VALIDATED,
@@ -57,7 +69,20 @@ public class Order {
         SHIPPED,
         DELIVERED,
         CANCELLED,
-        FAILED
+        FAILED;
+        
+        public boolean isFinal() {
+            return this == DELIVERED || this == CANCELLED || this == FAILED;
+        }
+        
+        // Orders only move forward: a late or repeated event for an earlier stage is not a
+        // transition. CANCELLED and FAILED can end any order that is not final yet.
+        public boolean canAdvanceTo(OrderStatus next) {
+            if (isFinal()) {
+                return false;
+            }
+            return next == CANCELLED || next == FAILED || next.ordinal() > ordinal();
+        }
     }
     
     // JPA Callbacks
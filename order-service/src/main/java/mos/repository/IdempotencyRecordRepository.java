@@ -0,0 +1,51 @@
+package mos.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import mos.model.IdempotencyRecord;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Returns 1 when this caller now owns the key: either it was free, the previous entry
+    // expired, or the previous claim was abandoned (no response before staleBefore)
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO order_idempotency_keys (idempotency_key, request_hash, created_at, expires_at)
+        VALUES (:key, :requestHash, :now, :expiresAt)
+        ON CONFLICT (idempotency_key) DO UPDATE
+           SET request_hash = EXCLUDED.request_hash, order_id = NULL, response_body = NULL,
+               created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at
+         WHERE order_idempotency_keys.expires_at < :now
+            OR (order_idempotency_keys.response_body IS NULL AND order_idempotency_keys.created_at < :staleBefore)
+        """, nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.orderId = :orderId, r.responseBody = :responseBody WHERE r.key = :key")
+    int complete(@Param("key") String key, @Param("orderId") Long orderId, @Param("responseBody") String responseBody);
+
+    // Frees a claim whose execution failed, so the client can retry with the same key
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.responseBody IS NULL")
+    int release(@Param("key") String key);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,38 @@
+package mos.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import mos.model.Order;
+
+// Ids come from the pooled orders_seq, so Hibernate assigns them on persist without a round trip
+// and sends the inserts as JDBC batches (hibernate.jdbc.batch_size). The orders carry their ids
+// when this returns, so their outbox rows can reference them.
+@Repository
+public class OrderBatchWriter {
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public OrderBatchWriter(EntityManager entityManager,
+                            @Value("${orders.insert-batch-size:500}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    // Flushes but never clears: the caller's transaction may hold other managed entities
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void insertAll(List<Order> orders) {
+        for (int i = 0; i < orders.size(); i++) {
+            entityManager.persist(orders.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+            }
+        }
+        entityManager.flush();
+    }
+}
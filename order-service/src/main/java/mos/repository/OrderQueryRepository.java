@@ -0,0 +1,92 @@
+package mos.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import mos.dto.OrderCursor;
+import mos.model.Order;
+
+// Order listing queries, newest first. Pages seek past the last (created_at, id) seen instead of
+// using OFFSET, so every page costs the same index range scan however deep the client goes.
+@Repository
+public class OrderQueryRepository {
+    private static final String SELECT =
+        "SELECT id, customer_id, product_id, quantity, total_amount, status, created_at, updated_at FROM orders";
+    private static final String ORDER_BY = " ORDER BY created_at DESC, id DESC";
+
+    private static final RowMapper<Order> ORDER_MAPPER = OrderQueryRepository::mapOrder;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public OrderQueryRepository(JdbcTemplate jdbcTemplate,
+                                DataSource dataSource,
+                                @Value("${orders.stream.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // The PostgreSQL driver only uses a server-side cursor with a fetch size inside a transaction
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public List<Order> findPage(Order.OrderStatus status, Long customerId, OrderCursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT).append(where(status, customerId, args));
+        if (after != null) {
+            sql.append(args.isEmpty() ? " WHERE" : " AND").append(" (created_at, id) < (?, ?)");
+            args.add(Timestamp.valueOf(after.createdAt()));
+            args.add(after.id());
+        }
+        sql.append(ORDER_BY).append(" LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ORDER_MAPPER, args.toArray());
+    }
+
+    // Hands every matching order to the sink one row at a time; at most fetch-size rows are in memory
+    @Transactional(readOnly = true)
+    public void streamAll(Order.OrderStatus status, Long customerId, Consumer<Order> sink) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT + where(status, customerId, args) + ORDER_BY;
+        RowCallbackHandler handler = rs -> sink.accept(mapOrder(rs, 0));
+        streamingJdbcTemplate.query(sql, handler, args.toArray());
+    }
+
+    private static String where(Order.OrderStatus status, Long customerId, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (status != null) {
+            conditions.add("status = ?");
+            args.add(status.name());
+        }
+        if (customerId != null) {
+            conditions.add("customer_id = ?");
+            args.add(customerId);
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static Order mapOrder(ResultSet rs, int rowNum) throws SQLException {
+        Order order = new Order();
+        order.setId(rs.getLong("id"));
+        order.setCustomerId(rs.getLong("customer_id"));
+        order.setProductId(rs.getString("product_id"));
+        order.setQuantity(rs.getInt("quantity"));
+        order.setTotalAmount(rs.getDouble("total_amount"));
+        order.setStatus(Order.OrderStatus.valueOf(rs.getString("status")));
+        order.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        order.setUpdatedAt(updatedAt == null ? null : updatedAt.toLocalDateTime());
+        return order;
+    }
+}
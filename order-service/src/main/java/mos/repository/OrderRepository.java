@@ -1,8 +1,12 @@
 package mos.repository;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Collection;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import mos.model.Order;
@@ -10,7 +14,17 @@ import mos.model.Order;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    List<Order> findByCustomerUsername(String username);
-    // Basic CRUD operations are provided by JpaRepository
-    // You can add custom query methods here later
+    // Basic CRUD operations are provided by JpaRepository.
+    // Listings (all orders, per status or per customer) go through OrderQueryRepository.
+
+    // Compare-and-set on the status column: orders not currently in one of the from statuses
+    // (already further along, or gone) are left alone. Returns the number of orders moved.
+    @Modifying(clearAutomatically = true)
+    @Query("""
+        UPDATE Order o SET o.status = :status, o.updatedAt = :now
+        WHERE o.id IN :ids AND o.status IN :from""")
+    int advanceStatus(@Param("ids") Collection<Long> ids,
+                      @Param("status") Order.OrderStatus status,
+                      @Param("from") Collection<Order.OrderStatus> from,
+                      @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package mos.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import mos.model.OutboxEvent;
+
+// Batch counterpart of OutboxEventRepository.save for bulk order creation
+@Repository
+public class OutboxBatchWriter {
+    private static final String INSERT_SQL =
+        "INSERT INTO order_outbox (aggregate_id, topic, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public OutboxBatchWriter(JdbcTemplate jdbcTemplate,
+                             @Value("${orders.insert-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void insertAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, batchSize, (ps, event) -> {
+            ps.setLong(1, event.getAggregateId());
+            ps.setString(2, event.getTopic());
+            ps.setString(3, event.getPayload());
+            ps.setTimestamp(4, now);
+        });
+    }
+}
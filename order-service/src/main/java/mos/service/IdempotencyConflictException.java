@@ -0,0 +1,17 @@
+package mos.service;
+
+import org.springframework.http.HttpStatus;
+
+// Idempotency-Key reused with a different request (422) or still being processed elsewhere (409)
+public class IdempotencyConflictException extends RuntimeException {
+    private final HttpStatus status;
+
+    public IdempotencyConflictException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
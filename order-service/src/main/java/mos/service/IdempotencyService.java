@@ -0,0 +1,216 @@
+package mos.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import mos.dto.OrderRequest;
+import mos.model.IdempotencyRecord;
+import mos.model.Order;
+import mos.repository.IdempotencyRecordRepository;
+
+/**
+ * Makes order creation safe to retry. The first request for a caller's Idempotency-Key creates
+ * the order; repeats get the stored result back. Lookups hit an in-memory cache first, then the
+ * order_idempotency_keys table. Concurrent repeats wait for the running request instead of
+ * starting their own, on this instance through a shared future and across instances through the
+ * claimed table row.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MS = 100;
+
+    public record Result(Order order, boolean replayed) {}
+
+    private record Completed(String requestHash, Order order) {}
+
+    private record InFlight(String requestHash, CompletableFuture<Order> result) {}
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration staleAfter;
+    private final Cache<String, Completed> completed;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl:24h}") Duration ttl,
+                              @Value("${idempotency.wait-timeout:10s}") Duration waitTimeout,
+                              @Value("${idempotency.stale-after:30s}") Duration staleAfter,
+                              @Value("${idempotency.cache.max-entries:10000}") long maxEntries) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.staleAfter = staleAfter;
+        this.completed = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    public Result execute(String caller, String idempotencyKey, OrderRequest request, Supplier<Order> action) {
+        if (!StringUtils.hasText(idempotencyKey) || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        // Scoped per caller so two clients can never see each other's orders through a shared key
+        String key = caller + ":" + idempotencyKey;
+        String requestHash = hash(request);
+
+        Completed cached = completed.getIfPresent(key);
+        if (cached != null) {
+            checkSameRequest(cached.requestHash(), requestHash);
+            return new Result(cached.order(), true);
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            checkSameRequest(running.requestHash(), requestHash);
+            return new Result(await(running.result()), true);
+        }
+        try {
+            Result result = claimAndExecute(key, requestHash, action);
+            mine.result().complete(result.order());
+            return result;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Scheduled(cron = "${idempotency.cleanup-cron:0 */10 * * * *}")
+    public void purgeExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        log.info("Purged {} expired idempotency keys", deleted);
+    }
+
+    private Result claimAndExecute(String key, String requestHash, Supplier<Order> action) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            if (repository.claim(key, requestHash, now, now.plus(ttl), now.minus(staleAfter)) == 1) {
+                break;
+            }
+            IdempotencyRecord existing = repository.findById(key).orElse(null);
+            if (existing != null) {
+                checkSameRequest(existing.getRequestHash(), requestHash);
+                if (existing.getResponseBody() != null) {
+                    Order order = fromJson(existing.getResponseBody());
+                    completed.put(key, new Completed(existing.getRequestHash(), order));
+                    return new Result(order, true);
+                }
+            }
+            // Another instance holds the claim: wait for it to store its response
+            if (System.nanoTime() > deadline) {
+                throw new IdempotencyConflictException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed");
+            }
+            sleep(POLL_INTERVAL_MS);
+        }
+
+        Order order;
+        try {
+            order = action.get();
+        } catch (RuntimeException e) {
+            repository.release(key);
+            throw e;
+        }
+        try {
+            repository.complete(key, order.getId(), toJson(order));
+        } catch (RuntimeException e) {
+            // The order exists; only the replay record is missing, and the claim goes stale
+            log.error("Order {} created but its idempotency key could not be stored: {}", order.getId(), e.getMessage());
+        }
+        completed.put(key, new Completed(requestHash, order));
+        return new Result(order, false);
+    }
+
+    private Order await(CompletableFuture<Order> result) {
+        try {
+            return result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is still being processed");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a duplicate request", e);
+        }
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyConflictException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key was already used with a different request");
+        }
+    }
+
+    private static String hash(OrderRequest request) {
+        String canonical = request.getCustomerId() + "|" + request.getProductId() + "|" + request.getQuantity();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String toJson(Order order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize order " + order.getId(), e);
+        }
+    }
+
+    private Order fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, Order.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not read stored idempotent response", e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a duplicate request", e);
+        }
+    }
+}
@@ -1,18 +1,31 @@
 package mos.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import mos.client.CustomerServiceClient;
 import mos.client.InventoryServiceClient;
+import mos.client.InventoryServiceClient.ProductInfo;
+import mos.dto.BatchOrderResponse;
+import mos.dto.BatchOrderResult;
+import mos.dto.OrderCursor;
+import mos.dto.OrderPage;
 import mos.dto.OrderRequest;
-import mos.events.OrderEvent;
 import mos.model.Order;
+import mos.repository.OrderBatchWriter;
+import mos.repository.OrderQueryRepository;
 import mos.repository.OrderRepository;
 
 @Service
@@ -20,85 +33,132 @@ public class OrderService {
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
     
     private final OrderRepository orderRepository;
+    private final OrderQueryRepository orderQueryRepository;
     private final CustomerServiceClient customerClient;
     private final InventoryServiceClient inventoryClient;
-    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final OrderValidator orderValidator;
+    private final OutboxService outboxService;
+    private final OrderBatchWriter orderBatchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final int maxPageSize;
     
     public OrderService(OrderRepository orderRepository,
+                       OrderQueryRepository orderQueryRepository,
                        CustomerServiceClient customerClient,
                        InventoryServiceClient inventoryClient,
-                       KafkaTemplate<String, OrderEvent> kafkaTemplate) {
+                       OrderValidator orderValidator,
+                       OutboxService outboxService,
+                       OrderBatchWriter orderBatchWriter,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${orders.batch.max-size:500}") int maxBatchSize,
+                       @Value("${orders.page.max-size:500}") int maxPageSize) {
         this.orderRepository = orderRepository;
+        this.orderQueryRepository = orderQueryRepository;
         this.customerClient = customerClient;
         this.inventoryClient = inventoryClient;
-        this.kafkaTemplate = kafkaTemplate;
+        this.orderValidator = orderValidator;
+        this.outboxService = outboxService;
+        this.orderBatchWriter = orderBatchWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.maxPageSize = maxPageSize;
     }
     
-    @Transactional
     public Order createOrder(OrderRequest request) {
         log.info("Creating order for customer {} and product {}", 
                 request.getCustomerId(), request.getProductId());
         
-        // Step 1: Validate customer exists (SYNC)
-        boolean customerExists = customerClient.customerExists(request.getCustomerId());
-        if (!customerExists) {
-            throw new RuntimeException("Customer not found: " + request.getCustomerId());
-        }
-        log.info("Customer {} validated", request.getCustomerId());
-        
-        // Step 2: Check inventory and get product info (SYNC)
-        var productInfo = inventoryClient.checkInventory(
-            request.getProductId(), 
-            request.getQuantity()
-        );
-        if (!productInfo.isAvailable()) {
-            throw new RuntimeException("Insufficient inventory for product: " + request.getProductId());
-        }
-        log.info("Inventory validated for product {}", request.getProductId());
+        // Step 1: Validate customer and inventory in parallel, outside the DB transaction
+        var productInfo = orderValidator.validate(request).block();
+        log.info("Customer {} and product {} validated", request.getCustomerId(), request.getProductId());
         
-        // Step 3: Create order
-        Order order = new Order();
-        order.setCustomerId(request.getCustomerId());
-        order.setProductId(request.getProductId());
-        order.setQuantity(request.getQuantity());
-        order.setTotalAmount(productInfo.getPrice() * request.getQuantity());
-        order.setStatus(Order.OrderStatus.VALIDATED);
-        
-        order = orderRepository.save(order);
+        // Step 2: Create order - committed only after both checks passed
+        Order order = transactionTemplate.execute(status -> {
+            Order newOrder = new Order();
+            newOrder.setCustomerId(request.getCustomerId());
+            newOrder.setProductId(request.getProductId());
+            newOrder.setQuantity(request.getQuantity());
+            newOrder.setTotalAmount(productInfo.getPrice() * request.getQuantity());
+            newOrder.setStatus(Order.OrderStatus.VALIDATED);
+            newOrder = orderRepository.save(newOrder);
+            
+            // Step 3: Record the event in the outbox, atomically with the order
+            outboxService.enqueueOrderCreated(newOrder);
+            return newOrder;
+        });
         log.info("Order {} created successfully", order.getId());
         
-        // Step 4: Publish event ASYNCHRONOUSLY - don't wait for result
-        publishOrderEvent(order);
-        
         return order;
     }
     
-    // Separate method that publishes async and doesn't throw exceptions
-    private void publishOrderEvent(Order order) {
-        try {
-            OrderEvent event = new OrderEvent(
-                order.getId(),
-                order.getCustomerId(),
-                order.getProductId(),
-                order.getQuantity(),
-                order.getTotalAmount(),
-                order.getStatus().toString()
-            );
+    // Creates every valid order of the batch and rejects the others individually. Each distinct
+    // customer and product is validated once; accepted orders and their outbox events are written
+    // with one JDBC batch each, in a single transaction.
+    public BatchOrderResponse createOrders(List<OrderRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new RuntimeException("Batch must contain at least one order");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new RuntimeException("Batch exceeds the maximum of " + maxBatchSize + " orders");
+        }
+        List<OrderRequest> items = requests.stream()
+            .map(r -> r == null ? new OrderRequest() : r)
+            .toList();
+        log.info("Creating batch of {} orders", items.size());
+        
+        // Step 1: Validate distinct customers and products, outside the DB transaction
+        var validation = orderValidator.validateBatch(items).block();
+        
+        // Step 2: Decide per item; stock is handed out in request order
+        BatchOrderResult[] results = new BatchOrderResult[items.size()];
+        List<Order> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        Map<String, Integer> remainingStock = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            OrderRequest request = items.get(i);
+            if (request.getCustomerId() == null || request.getProductId() == null
+                    || request.getQuantity() == null || request.getQuantity() <= 0) {
+                results[i] = BatchOrderResult.rejected(i, "Order needs a customerId, a productId and a positive quantity");
+                continue;
+            }
+            if (!validation.existingCustomers().contains(request.getCustomerId())) {
+                results[i] = BatchOrderResult.rejected(i, "Customer not found: " + request.getCustomerId());
+                continue;
+            }
+            ProductInfo product = validation.products().get(request.getProductId());
+            int remaining = remainingStock.computeIfAbsent(request.getProductId(), id -> product.getStock());
+            if (product.getPrice() == null || remaining < request.getQuantity()) {
+                results[i] = BatchOrderResult.rejected(i, "Insufficient inventory for product: " + request.getProductId());
+                continue;
+            }
+            remainingStock.put(request.getProductId(), remaining - request.getQuantity());
             
-            // Send async - add callback for success/failure
-            kafkaTemplate.send("order-created", String.valueOf(order.getId()), event)
-                .whenComplete((result, ex) -> {
-                    if (ex == null) {
-                        log.info("Order event published successfully for order {}", order.getId());
-                    } else {
-                        log.error("Failed to publish order event for order {}: {}", 
-                                order.getId(), ex.getMessage());
-                    }
-                });
-                
-        } catch (Exception e) {
-            log.error("Exception while publishing order event: {}", e.getMessage());
+            Order order = new Order();
+            order.setCustomerId(request.getCustomerId());
+            order.setProductId(request.getProductId());
+            order.setQuantity(request.getQuantity());
+            order.setTotalAmount(product.getPrice() * request.getQuantity());
+            order.setStatus(Order.OrderStatus.VALIDATED);
+            accepted.add(order);
+            acceptedIndexes.add(i);
+        }
+        
+        // Step 3: Insert orders and their outbox events together
+        if (!accepted.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderBatchWriter.insertAll(accepted);
+                outboxService.enqueueOrderCreatedAll(accepted);
+            });
         }
+        for (int j = 0; j < accepted.size(); j++) {
+            Order order = accepted.get(j);
+            int index = acceptedIndexes.get(j);
+            results[index] = BatchOrderResult.created(index, order.getId(), order.getTotalAmount());
+        }
+        log.info("Batch done: {} created, {} rejected", accepted.size(), items.size() - accepted.size());
+        
+        return new BatchOrderResponse(Arrays.asList(results));
     }
     
     public Order getOrder(Long id) {
@@ -106,8 +166,24 @@ public class OrderService {
             .orElseThrow(() -> new RuntimeException("Order not found: " + id));
     }
     
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    // Newest first; pass the previous page's nextCursor to continue
+    public OrderPage getOrders(Order.OrderStatus status, Long customerId, String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new RuntimeException("limit must be between 1 and " + maxPageSize);
+        }
+        OrderCursor after = cursor == null ? null : OrderCursor.decode(cursor);
+        // One extra row tells whether another page follows
+        List<Order> orders = orderQueryRepository.findPage(status, customerId, after, limit + 1);
+        if (orders.size() <= limit) {
+            return new OrderPage(orders, null);
+        }
+        List<Order> page = orders.subList(0, limit);
+        Order last = page.get(limit - 1);
+        return new OrderPage(page, new OrderCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+    
+    public void streamOrders(Order.OrderStatus status, Long customerId, Consumer<Order> sink) {
+        orderQueryRepository.streamAll(status, customerId, sink);
     }
     
     @Transactional
@@ -0,0 +1,70 @@
+package mos.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import mos.model.Order.OrderStatus;
+import mos.repository.OrderRepository;
+
+/**
+ * Keeps orders.status in step with what payment-service and shipping-service report, so the
+ * order alone answers "where is my order". Changes are applied as compare-and-set updates that
+ * only ever move an order forward (see {@link OrderStatus#canAdvanceTo}): replaying a batch is a
+ * no-op, and a result that arrives after a later one (payment and shipping publish on separate
+ * topics, so there is no order between them) does not move the order back.
+ */
+@Service
+public class OrderStatusProjection {
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusProjection.class);
+
+    private final OrderRepository orderRepository;
+
+    public record StatusChange(Long orderId, OrderStatus status) {}
+
+    public OrderStatusProjection(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    // One UPDATE per distinct target status rather than per event; returns the orders moved
+    @Transactional
+    public int apply(List<StatusChange> changes) {
+        // Each order's changes in arrival order, reduced to where they lead
+        Map<Long, OrderStatus> targets = new LinkedHashMap<>();
+        for (StatusChange change : changes) {
+            targets.merge(change.orderId(), change.status(),
+                (current, next) -> current.canAdvanceTo(next) ? next : current);
+        }
+
+        Map<OrderStatus, List<Long>> byStatus = new EnumMap<>(OrderStatus.class);
+        targets.forEach((orderId, status) -> byStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(orderId));
+
+        LocalDateTime now = LocalDateTime.now();
+        int moved = 0;
+        for (Map.Entry<OrderStatus, List<Long>> entry : byStatus.entrySet()) {
+            moved += orderRepository.advanceStatus(entry.getValue(), entry.getKey(), predecessors(entry.getKey()), now);
+        }
+        log.info("Applied {} status changes to {} orders, {} moved", changes.size(), targets.size(), moved);
+        return moved;
+    }
+
+    static Set<OrderStatus> predecessors(OrderStatus status) {
+        Set<OrderStatus> from = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus candidate : OrderStatus.values()) {
+            if (candidate.canAdvanceTo(status)) {
+                from.add(candidate);
+            }
+        }
+        return from;
+    }
+}
@@ -0,0 +1,111 @@
+package mos.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import mos.client.CustomerServiceClient;
+import mos.client.InventoryServiceClient;
+import mos.client.InventoryServiceClient.ProductInfo;
+import mos.client.InventoryServiceClient.ProductResponse;
+import mos.dto.OrderRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+/**
+ * Runs the customer and inventory checks for an order concurrently under one shared deadline,
+ * so validation latency is that of the slower call rather than the sum of both.
+ */
+@Component
+public class OrderValidator {
+    private final CustomerServiceClient customerClient;
+    private final InventoryServiceClient inventoryClient;
+    private final Duration timeout;
+    private final Duration batchTimeout;
+    private final int batchConcurrency;
+
+    // Distinct customers found and product stock/price snapshots for a batch of requests
+    public record BatchValidation(Set<Long> existingCustomers, Map<String, ProductInfo> products) {}
+
+    public OrderValidator(CustomerServiceClient customerClient,
+                          InventoryServiceClient inventoryClient,
+                          @Value("${services.validation.timeout:5s}") Duration timeout,
+                          @Value("${services.validation.batch-timeout:30s}") Duration batchTimeout,
+                          @Value("${services.validation.batch-concurrency:16}") int batchConcurrency) {
+        this.customerClient = customerClient;
+        this.inventoryClient = inventoryClient;
+        this.timeout = timeout;
+        this.batchTimeout = batchTimeout;
+        this.batchConcurrency = batchConcurrency;
+    }
+
+    // Emits the product info (with current price) once both checks pass
+    public Mono<ProductInfo> validate(OrderRequest request) {
+        return Mono.zip(
+                customerClient.customerExistsAsync(request.getCustomerId()),
+                inventoryClient.checkInventoryAsync(request.getProductId(), request.getQuantity()))
+            .timeout(timeout)
+            .onErrorMap(TimeoutException.class,
+                e -> new RuntimeException("Order validation timed out after " + timeout.toMillis() + " ms"))
+            .map(result -> {
+                if (!result.getT1()) {
+                    throw new RuntimeException("Customer not found: " + request.getCustomerId());
+                }
+                if (!result.getT2().isAvailable()) {
+                    throw new RuntimeException("Insufficient inventory for product: " + request.getProductId());
+                }
+                return result.getT2();
+            });
+    }
+
+    // Checks every distinct customer once (at most batchConcurrency calls in flight) and all
+    // products with a single bulk lookup. Products are checked against the batch's total
+    // quantity for them; the caller splits the returned stock between the individual orders.
+    public Mono<BatchValidation> validateBatch(List<OrderRequest> requests) {
+        Set<Long> customerIds = requests.stream()
+            .map(OrderRequest::getCustomerId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<String, Integer> requestedPerProduct = requests.stream()
+            .filter(r -> r.getProductId() != null && r.getQuantity() != null && r.getQuantity() > 0)
+            .collect(Collectors.toMap(OrderRequest::getProductId, OrderRequest::getQuantity, Integer::sum));
+
+        Mono<Set<Long>> existingCustomers = Flux.fromIterable(customerIds)
+            .flatMap(id -> customerClient.customerExistsAsync(id).map(exists -> Tuples.of(id, exists)),
+                batchConcurrency)
+            .filter(result -> result.getT2())
+            .map(result -> result.getT1())
+            .collect(Collectors.toSet());
+        Mono<Map<String, ProductInfo>> products = requestedPerProduct.isEmpty()
+            ? Mono.just(Map.of())
+            : inventoryClient.lookupAsync(requestedPerProduct.keySet())
+                .map(found -> toProductInfo(requestedPerProduct, found));
+
+        return Mono.zip(existingCustomers, products)
+            .timeout(batchTimeout)
+            .onErrorMap(TimeoutException.class,
+                e -> new RuntimeException("Batch validation timed out after " + batchTimeout.toMillis() + " ms"))
+            .map(result -> new BatchValidation(result.getT1(), result.getT2()));
+    }
+
+    private static Map<String, ProductInfo> toProductInfo(Map<String, Integer> requestedPerProduct,
+                                                          Map<String, ProductResponse> found) {
+        Map<String, ProductInfo> products = new LinkedHashMap<>();
+        requestedPerProduct.forEach((id, requested) -> {
+            ProductResponse product = found.get(id);
+            products.put(id, product == null || product.getQuantity() == null
+                ? new ProductInfo(false, 0.0)
+                : new ProductInfo(product.getQuantity() >= requested, product.getPrice(), product.getQuantity()));
+        });
+        return products;
+    }
+}
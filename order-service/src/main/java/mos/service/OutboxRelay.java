@@ -0,0 +1,169 @@
+package mos.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.events.OrderEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import mos.model.OutboxEvent;
+import mos.repository.OutboxEventRepository;
+
+/**
+ * Drains the order outbox to Kafka in batches. Rows are locked with SKIP LOCKED, sent as one
+ * producer batch, and marked sent only once the broker acknowledged them, so a Kafka outage
+ * delays events instead of losing them.
+ */
+@Component
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    private final OutboxEventRepository outboxRepository;
+    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration retention;
+    
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter publishedCounter;
+    
+    public OutboxRelay(OutboxEventRepository outboxRepository,
+                       KafkaTemplate<String, OrderEvent> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout:10s}") Duration sendTimeout,
+                       @Value("${outbox.relay.retention:P7D}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.retention = retention;
+        
+        Gauge.builder("orders.outbox.depth", depth, AtomicLong::get)
+            .description("Outbox events not yet published to Kafka")
+            .register(meterRegistry);
+        TimeGauge.builder("orders.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+            .description("Age of the oldest unpublished outbox event")
+            .register(meterRegistry);
+        this.publishedCounter = Counter.builder("orders.outbox.published")
+            .description("Outbox events published to Kafka")
+            .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:500}")
+    public void relay() {
+        try {
+            // Keep draining while batches come back full and fully acknowledged
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> relayBatch());
+            } while (published != null && published == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay failed: {}", e.getMessage());
+        } finally {
+            refreshMetrics();
+        }
+    }
+    
+    @Scheduled(cron = "${outbox.relay.cleanup-cron:0 0 * * * *}")
+    public void purgeSent() {
+        Integer deleted = transactionTemplate.execute(status ->
+            outboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention)));
+        log.info("Purged {} published outbox events", deleted);
+    }
+    
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxRepository.lockUnsentBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        List<Long> poisonIds = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(batch.size());
+        List<CompletableFuture<SendResult<String, OrderEvent>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent outboxEvent : batch) {
+            OrderEvent event;
+            try {
+                event = objectMapper.readValue(outboxEvent.getPayload(), OrderEvent.class);
+            } catch (Exception e) {
+                // Unreadable payloads would block the outbox forever, so record them and move on
+                log.error("Dropping unreadable outbox event {}: {}", outboxEvent.getId(), e.getMessage());
+                poisonIds.add(outboxEvent.getId());
+                continue;
+            }
+            try {
+                sends.add(kafkaTemplate.send(outboxEvent.getTopic(), String.valueOf(outboxEvent.getAggregateId()), event));
+                ids.add(outboxEvent.getId());
+            } catch (Exception e) {
+                // Failed before reaching the producer buffer (no metadata within max.block.ms, buffer
+                // full, serializer): the rest of the batch would fail the same way, so leave it all
+                // unsent for the next pass
+                log.warn("Outbox event {} could not be sent, will retry: {}", outboxEvent.getId(), e.getMessage());
+                break;
+            }
+        }
+        
+        // One deadline for the whole batch, without flush(): that blocks for delivery.timeout.ms
+        // while this transaction holds the rows' locks
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Outbox batch not fully acknowledged within {}: {}", sendTimeout, e.getMessage());
+        }
+        
+        List<Long> sentIds = new ArrayList<>(poisonIds);
+        int acknowledged = 0;
+        for (int i = 0; i < sends.size(); i++) {
+            CompletableFuture<SendResult<String, OrderEvent>> send = sends.get(i);
+            if (send.isDone() && !send.isCompletedExceptionally()) {
+                sentIds.add(ids.get(i));
+                acknowledged++;
+            }
+        }
+        
+        if (!sentIds.isEmpty()) {
+            outboxRepository.markSent(sentIds, LocalDateTime.now());
+        }
+        publishedCounter.increment(acknowledged);
+        log.debug("Relayed {}/{} outbox events", acknowledged, batch.size());
+        return sentIds.size() == batch.size() ? sentIds.size() : 0;
+    }
+    
+    private void refreshMetrics() {
+        try {
+            depth.set(outboxRepository.countBySentAtIsNull());
+            lagMillis.set(outboxRepository.findFirstBySentAtIsNullOrderByIdAsc()
+                .map(oldest -> Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toMillis())
+                .orElse(0L));
+        } catch (Exception e) {
+            log.warn("Could not refresh outbox metrics: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package mos.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.events.OrderEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import mos.model.Order;
+import mos.model.OutboxEvent;
+import mos.repository.OutboxBatchWriter;
+import mos.repository.OutboxEventRepository;
+
+@Service
+public class OutboxService {
+    public static final String ORDER_CREATED_TOPIC = "order-created";
+    
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxBatchWriter outboxBatchWriter;
+    private final ObjectMapper objectMapper;
+    
+    public OutboxService(OutboxEventRepository outboxRepository,
+                         OutboxBatchWriter outboxBatchWriter,
+                         ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.outboxBatchWriter = outboxBatchWriter;
+        this.objectMapper = objectMapper;
+    }
+    
+    // Must join the caller's transaction so the event commits or rolls back with the order
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueOrderCreated(Order order) {
+        outboxRepository.save(toOutboxEvent(order));
+    }
+    
+    // Same as enqueueOrderCreated for a whole batch of orders, in one JDBC batch
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueOrderCreatedAll(List<Order> orders) {
+        outboxBatchWriter.insertAll(orders.stream().map(this::toOutboxEvent).toList());
+    }
+    
+    private OutboxEvent toOutboxEvent(Order order) {
+        OrderEvent event = new OrderEvent(
+            order.getId(),
+            order.getCustomerId(),
+            order.getProductId(),
+            order.getQuantity(),
+            order.getTotalAmount(),
+            order.getStatus().toString()
+        );
+        
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateId(order.getId());
+        outboxEvent.setTopic(ORDER_CREATED_TOPIC);
+        outboxEvent.setPayload(toJson(event));
+        return outboxEvent;
+    }
+    
+    private String toJson(OrderEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize order event for order " + event.getOrderId(), e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package mos.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Mono;
+
+class CustomerServiceClientTest {
+    private static final String SERVICE_TOKEN = "s3cret";
+
+    private final Set<Long> customers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private volatile boolean down;
+
+    CustomerServiceClientTest() {
+        LongStream.rangeClosed(1, 1000).forEach(customers::add);
+    }
+
+    @Test
+    void knownCustomerIsLookedUpOnce() {
+        CustomerServiceClient client = newClient(Duration.ofMinutes(1), false);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(client.customerExists(7L));
+        }
+
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void unknownCustomerIsCachedBriefly() throws Exception {
+        CustomerServiceClient client = newClient(Duration.ofMillis(100), false);
+
+        assertFalse(client.customerExists(5000L));
+        assertFalse(client.customerExists(5000L));
+        assertEquals(1, lookups.get());
+
+        Thread.sleep(200);
+        customers.add(5000L);
+        assertTrue(client.customerExists(5000L));
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void errorsAreNotCached() {
+        CustomerServiceClient client = newClient(Duration.ofMinutes(1), false);
+        down = true;
+        assertFalse(client.customerExists(7L));
+
+        down = false;
+        assertTrue(client.customerExists(7L));
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void eventsEvictCachedAnswers() {
+        CustomerServiceClient client = newClient(Duration.ofMinutes(1), false);
+        assertFalse(client.customerExists(5000L));
+
+        customers.add(5000L);
+        client.onCustomerCreated(5000L);
+        assertTrue(client.customerExists(5000L));
+
+        customers.remove(5000L);
+        client.onCustomerDeleted(5000L);
+        assertFalse(client.customerExists(5000L));
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    void prefilterRejectsUnknownIdsWithoutALookup() throws Exception {
+        // Deleted ids leave holes below the highest known id
+        List<Long> holes = LongStream.rangeClosed(1, 1000).filter(id -> id % 10 == 0).boxed().toList();
+        customers.removeAll(holes);
+        CustomerServiceClient client = newClient(Duration.ofMinutes(1), true);
+        client.loadKnownIds();
+        Thread.sleep(200);
+
+        assertEquals(0, holes.stream().filter(client::customerExists).count());
+        // Only false positives of the 1% filter reach customer-service
+        assertTrue(lookups.get() < 10, "lookups: " + lookups.get());
+
+        // Above the highest known id: could be a customer created since the load, so it is looked up
+        customers.add(5001L);
+        assertTrue(client.customerExists(5001L));
+        assertFalse(client.customerExists(5002L));
+    }
+
+    @Test
+    void missedCreatedEventDoesNotHideANewerCustomer() throws Exception {
+        CustomerServiceClient client = newClient(Duration.ofMillis(100), true);
+        client.loadKnownIds();
+        Thread.sleep(200);
+
+        // 1001's event was lost (failed send, or sent before this instance's partitions were assigned)
+        customers.add(1001L);
+        customers.add(1002L);
+        client.onCustomerCreated(1002L);
+
+        assertTrue(client.customerExists(1001L));
+        assertTrue(client.customerExists(1002L));
+    }
+
+    @Test
+    void reloadPicksUpIdsTheSnapshotMissed() throws Exception {
+        // 500 was allocated before the snapshot but committed after it
+        customers.remove(500L);
+        CustomerServiceClient client = newClient(Duration.ofMillis(100), true);
+        client.loadKnownIds();
+        Thread.sleep(200);
+        customers.add(500L);
+        assertFalse(client.customerExists(500L));
+
+        client.loadKnownIds();
+        Thread.sleep(200);
+        assertTrue(client.customerExists(500L));
+    }
+
+    @Test
+    void prefilterStaysOffWithoutAServiceToken() throws Exception {
+        CustomerServiceClient client = newClient(Duration.ofMinutes(1), true, "");
+        client.loadKnownIds();
+        Thread.sleep(200);
+
+        assertFalse(client.customerExists(5000L));
+        assertEquals(1, lookups.get());
+    }
+
+    private CustomerServiceClient newClient(Duration negativeTtl, boolean prefilter) {
+        return newClient(negativeTtl, prefilter, SERVICE_TOKEN);
+    }
+
+    private CustomerServiceClient newClient(Duration negativeTtl, boolean prefilter, String serviceToken) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            String path = request.url().getPath();
+            // customer-service only hands the id list to ADMIN users and to other services
+            if (path.equals("/api/customers/ids")
+                    && !SERVICE_TOKEN.equals(request.headers().getFirst("X-Service-Token"))) {
+                return Mono.just(ClientResponse.create(HttpStatus.FORBIDDEN).build());
+            }
+            if (path.equals("/api/customers/ids")) {
+                String ids = customers.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+                return Mono.just(json(ids));
+            }
+            lookups.incrementAndGet();
+            if (down) {
+                return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+            }
+            long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+            return Mono.just(customers.contains(id)
+                ? json("{\"id\":" + id + "}")
+                : ClientResponse.create(HttpStatus.NOT_FOUND).build());
+        });
+        return new CustomerServiceClient(builder, "http://customer-service",
+            Duration.ofHours(1), negativeTtl, 10_000, prefilter, 0.01, serviceToken);
+    }
+
+    private static ClientResponse json(String body) {
+        return ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body(body)
+            .build();
+    }
+}
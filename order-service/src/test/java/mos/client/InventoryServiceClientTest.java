@@ -0,0 +1,133 @@
+package mos.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import mos.client.InventoryServiceClient.ProductInfo;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class InventoryServiceClientTest {
+    private final AtomicInteger calls = new AtomicInteger();
+    // Stock the stub reports; a negative value makes it answer 503
+    private volatile int stock = 10;
+    private volatile long delayMs;
+    // Responses are held until this completes
+    private volatile Mono<Void> gate = Mono.empty();
+    private final CountDownLatch secondCall = new CountDownLatch(2);
+
+    @Test
+    void freshSnapshotIsServedWithoutCallingInventory() {
+        InventoryServiceClient client = newClient(Duration.ofMinutes(1), Duration.ofMinutes(5));
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(client.checkInventory("p-1", 2).isAvailable());
+        }
+        assertFalse(client.checkInventory("p-1", 11).isAvailable());
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneRequest() {
+        InventoryServiceClient client = newClient(Duration.ofMinutes(1), Duration.ofMinutes(5));
+        delayMs = 100;
+
+        List<ProductInfo> results = Flux.range(0, 50)
+            .flatMap(i -> client.checkInventoryAsync("p-1", 1))
+            .collectList()
+            .block();
+
+        assertEquals(50, results.size());
+        assertTrue(results.stream().allMatch(ProductInfo::isAvailable));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void expiredSnapshotIsServedWhileRefreshingInTheBackground() throws Exception {
+        InventoryServiceClient client = newClient(Duration.ofMillis(50), Duration.ofMinutes(5));
+        client.checkInventory("p-1", 1);
+        Thread.sleep(100);
+        stock = 3;
+        Sinks.Empty<Void> release = Sinks.empty();
+        gate = release.asMono();
+
+        // Answered from the old snapshot; the refresh it triggers is held in the stub
+        assertEquals(10, client.checkInventory("p-1", 1).getStock());
+        assertTrue(secondCall.await(5, TimeUnit.SECONDS), "refresh never reached inventory");
+        assertEquals(10, client.checkInventory("p-1", 1).getStock());
+
+        release.tryEmitEmpty();
+        awaitStock(client, 3);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void lastKnownValueIsServedUntilMaxStaleWhileInventoryIsDown() throws Exception {
+        InventoryServiceClient client = newClient(Duration.ofMillis(20), Duration.ofMillis(400));
+        client.checkInventory("p-1", 1);
+        stock = -1;
+        Thread.sleep(50);
+
+        ProductInfo degraded = client.checkInventory("p-1", 1);
+        assertTrue(degraded.isAvailable());
+        assertEquals(2.5, degraded.getPrice());
+
+        Thread.sleep(450);
+        assertFalse(client.checkInventory("p-1", 1).isAvailable());
+    }
+
+    @Test
+    void unknownProductIsCachedToo() {
+        InventoryServiceClient client = newClient(Duration.ofMinutes(1), Duration.ofMinutes(5));
+
+        assertFalse(client.checkInventory("ghost", 1).isAvailable());
+        assertFalse(client.checkInventory("ghost", 1).isAvailable());
+
+        assertEquals(1, calls.get());
+    }
+
+    private void awaitStock(InventoryServiceClient client, int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && client.checkInventory("p-1", 1).getStock() != expected; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, client.checkInventory("p-1", 1).getStock());
+    }
+
+    private InventoryServiceClient newClient(Duration ttl, Duration maxStale) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            calls.incrementAndGet();
+            secondCall.countDown();
+            int current = stock;
+            ClientResponse response;
+            if (request.url().getPath().endsWith("/ghost")) {
+                response = ClientResponse.create(HttpStatus.NOT_FOUND).build();
+            } else if (current < 0) {
+                response = ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build();
+            } else {
+                response = ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"id\":\"p-1\",\"quantity\":" + current + ",\"price\":2.5}")
+                    .build();
+            }
+            return Mono.just(response).delayElement(Duration.ofMillis(delayMs)).delayUntil(held -> gate);
+        });
+        return new InventoryServiceClient(builder, "http://inventory-service", ttl, maxStale, 10_000,
+            Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,101 @@
+package mos.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import mos.dto.OrderPage;
+import mos.model.Order;
+import mos.service.IdempotencyService;
+import mos.service.OrderService;
+
+@WebMvcTest(controllers = OrderController.class,
+            properties = "spring.hateoas.use-hal-as-default-json-media-type=false")
+@AutoConfigureMockMvc(addFilters = false)
+class OrderRepresentationTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private OrderService orderService;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
+    @Test
+    void halIsTheDefault() throws Exception {
+        when(orderService.getOrder(7L)).thenReturn(order(7L));
+
+        mvc.perform(get("/api/orders/7"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaTypes.HAL_JSON))
+            .andExpect(jsonPath("$.id").value(7))
+            .andExpect(jsonPath("$._links.self.href").value("http://localhost/api/orders/7"))
+            .andExpect(jsonPath("$._links.cancel.href").value("/api/orders/7/cancel"));
+    }
+
+    @Test
+    void plainJsonIsCompact() throws Exception {
+        when(orderService.getOrder(7L)).thenReturn(order(7L));
+
+        mvc.perform(get("/api/orders/7").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.id").value(7))
+            .andExpect(jsonPath("$._links").doesNotExist())
+            .andExpect(jsonPath("$.links").doesNotExist());
+    }
+
+    @Test
+    void compactPageIsAnArrayWithTheNextLinkInAHeader() throws Exception {
+        when(orderService.getOrders(any(), any(), any(), anyInt()))
+            .thenReturn(new OrderPage(List.of(order(9L), order(8L)), "abc"));
+
+        mvc.perform(get("/api/orders?limit=2").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(9))
+            .andExpect(jsonPath("$[1].id").value(8))
+            .andExpect(header().string("Link", "<http://localhost/api/orders?limit=2&cursor=abc>;rel=\"next\""));
+    }
+
+    @Test
+    void halPageKeepsItsLinks() throws Exception {
+        when(orderService.getOrders(any(), any(), any(), anyInt()))
+            .thenReturn(new OrderPage(List.of(order(9L)), "abc"));
+
+        mvc.perform(get("/api/orders").accept(MediaTypes.HAL_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$._embedded.orderList[0]._links.self.href").value("http://localhost/api/orders/9"))
+            .andExpect(jsonPath("$._links.next.href").value("http://localhost/api/orders?cursor=abc"));
+    }
+
+    private static Order order(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setCustomerId(1L);
+        order.setProductId("p-1");
+        order.setQuantity(1);
+        order.setTotalAmount(9.99);
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setCreatedAt(LocalDateTime.of(2026, 3, 1, 12, 0));
+        return order;
+    }
+}
@@ -0,0 +1,141 @@
+package mos.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import mos.dto.OrderCursor;
+import mos.model.Order;
+
+/**
+ * Customer order history against a PostgreSQL scratch database seeded with 10M orders, where one
+ * customer owns 100k of them. Needs a database it may create the orders table in:
+ *
+ * mvn test -Dtest=OrderHistoryBenchmarkTest -Dorders.benchmark.jdbc-url=jdbc:postgresql://localhost:5433/order_bench
+ *
+ * Optional: -Dorders.benchmark.user, -Dorders.benchmark.password, -Dorders.benchmark.rows
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "orders.benchmark.jdbc-url", matches = ".+")
+class OrderHistoryBenchmarkTest {
+    private static final long HEAVY_CUSTOMER = 1L;
+    private static final int PAGE_SIZE = 50;
+    private static final int SAMPLES = 200;
+
+    private final long rows = Long.getLong("orders.benchmark.rows", 10_000_000L);
+    private JdbcTemplate jdbcTemplate;
+    private OrderQueryRepository repository;
+
+    @BeforeAll
+    void seed() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            System.getProperty("orders.benchmark.jdbc-url"),
+            System.getProperty("orders.benchmark.user", "postgres"),
+            System.getProperty("orders.benchmark.password", "password"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new OrderQueryRepository(jdbcTemplate, dataSource, 500);
+
+        // Same columns and indexes as the Order mapping; BIGSERIAL only so the seed needs no ids
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS orders (
+                id BIGSERIAL PRIMARY KEY,
+                customer_id BIGINT NOT NULL,
+                product_id VARCHAR(255) NOT NULL,
+                quantity INTEGER NOT NULL,
+                total_amount FLOAT(53) NOT NULL,
+                status VARCHAR(20) NOT NULL,
+                created_at TIMESTAMP(6) NOT NULL,
+                updated_at TIMESTAMP(6))""");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_created_id ON orders (created_at, id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_status_created_id ON orders (status, created_at, id)");
+        jdbcTemplate.execute(
+            "CREATE INDEX IF NOT EXISTS idx_orders_customer_created_id ON orders (customer_id, created_at DESC, id DESC)");
+
+        Long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM orders", Long.class);
+        if (existing == null || existing != rows) {
+            jdbcTemplate.execute("TRUNCATE orders RESTART IDENTITY");
+            // Every 100th order belongs to the heavy customer, the rest spread over 100k customers
+            jdbcTemplate.update("""
+                INSERT INTO orders (customer_id, product_id, quantity, total_amount, status, created_at, updated_at)
+                SELECT CASE WHEN i % 100 = 0 THEN 1 ELSE 2 + i % 100000 END,
+                       'p-' || (i % 5000), 1 + i % 5, 9.99, 'VALIDATED',
+                       TIMESTAMP '2024-01-01' + i * INTERVAL '1 second',
+                       TIMESTAMP '2024-01-01' + i * INTERVAL '1 second'
+                  FROM generate_series(1, ?) AS i""", rows);
+            jdbcTemplate.execute("ANALYZE orders");
+        }
+    }
+
+    @Test
+    void historyUsesTheCustomerIndexWithoutSorting() {
+        List<String> plan = jdbcTemplate.queryForList("""
+            EXPLAIN SELECT id FROM orders WHERE customer_id = 1
+             ORDER BY created_at DESC, id DESC LIMIT 51""", String.class);
+        String text = String.join("\n", plan);
+        System.out.println(text);
+
+        assertTrue(text.contains("idx_orders_customer_created_id"), text);
+        assertFalse(text.contains("Sort"), text);
+    }
+
+    @Test
+    void deepPagesCostTheSameAsTheFirst() {
+        // Walk 1000 pages into the heavy customer's history to get a deep cursor
+        OrderCursor deep = null;
+        for (int page = 0; page < 1000; page++) {
+            List<Order> orders = repository.findPage(null, HEAVY_CUSTOMER, deep, PAGE_SIZE);
+            Order last = orders.get(orders.size() - 1);
+            deep = new OrderCursor(last.getCreatedAt(), last.getId());
+        }
+
+        long firstP50 = p50Micros(null);
+        long deepP50 = p50Micros(deep);
+        long offsetP50 = offsetP50Micros(1000 * PAGE_SIZE);
+        System.out.printf("rows=%d first page p50=%dus | keyset page 1000 p50=%dus | OFFSET page 1000 p50=%dus%n",
+            rows, firstP50, deepP50, offsetP50);
+
+        assertEquals(PAGE_SIZE, repository.findPage(null, HEAVY_CUSTOMER, deep, PAGE_SIZE).size());
+        // Constant time: page 1000 stays within noise of page 1, while OFFSET pays for every skipped row
+        assertTrue(deepP50 < firstP50 * 3 + 1000, "deep page p50 " + deepP50 + "us vs first " + firstP50 + "us");
+        assertTrue(offsetP50 > deepP50 * 5, "OFFSET p50 " + offsetP50 + "us vs keyset " + deepP50 + "us");
+    }
+
+    private long p50Micros(OrderCursor after) {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            repository.findPage(null, HEAVY_CUSTOMER, after, PAGE_SIZE + 1);
+            samples[i] = System.nanoTime() - start;
+        }
+        return median(samples);
+    }
+
+    private long offsetP50Micros(int offset) {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            jdbcTemplate.queryForList("""
+                SELECT id, customer_id, product_id, quantity, total_amount, status, created_at, updated_at
+                  FROM orders WHERE customer_id = ? ORDER BY created_at DESC, id DESC OFFSET ? LIMIT ?""",
+                HEAVY_CUSTOMER, offset, PAGE_SIZE + 1);
+            samples[i] = System.nanoTime() - start;
+        }
+        return median(samples);
+    }
+
+    private static long median(long[] samplesNanos) {
+        long[] sorted = samplesNanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1000;
+    }
+}
@@ -0,0 +1,85 @@
+package mos.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import mos.model.Order;
+
+/**
+ * Insert throughput before and after the move from IDENTITY to the pooled orders_seq, against a
+ * PostgreSQL scratch database (both runs are rolled back):
+ *
+ * mvn test -Dtest=OrderInsertBenchmarkTest -Dorders.benchmark.jdbc-url=jdbc:postgresql://localhost:5433/order_bench?reWriteBatchedInserts=true
+ *
+ * "Before" replays what Hibernate sent for IDENTITY keys: one INSERT ... RETURNING id per row.
+ * "After" goes through OrderBatchWriter, i.e. Hibernate with hibernate.jdbc.batch_size.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OrderBatchWriter.class)
+@EnabledIfSystemProperty(named = "orders.benchmark.jdbc-url", matches = ".+")
+class OrderInsertBenchmarkTest {
+    private static final int ROWS = 20_000;
+
+    @Autowired
+    private OrderBatchWriter orderBatchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("orders.benchmark.jdbc-url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("orders.benchmark.user", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("orders.benchmark.password", "password"));
+    }
+
+    @Test
+    void pooledIdsWithBatchingOutrunIdentityInserts() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            jdbcTemplate.queryForObject("""
+                INSERT INTO orders (customer_id, product_id, quantity, total_amount, status, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id""", Long.class,
+                (long) i, "p-" + (i % 100), 1, 9.99, "VALIDATED", now, now);
+        }
+        double identitySeconds = (System.nanoTime() - start) / 1e9;
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Order order = new Order();
+            order.setCustomerId((long) i);
+            order.setProductId("p-" + (i % 100));
+            order.setQuantity(1);
+            order.setTotalAmount(9.99);
+            order.setStatus(Order.OrderStatus.VALIDATED);
+            orders.add(order);
+        }
+        start = System.nanoTime();
+        orderBatchWriter.insertAll(orders);
+        double pooledSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d orders: IDENTITY row-by-row %.0f rows/s | pooled sequence + batching %.0f rows/s%n",
+            ROWS, ROWS / identitySeconds, ROWS / pooledSeconds);
+
+        assertEquals(ROWS, orders.stream().map(Order::getId).distinct().count());
+        assertTrue(pooledSeconds < identitySeconds,
+            "batched " + pooledSeconds + "s vs row-by-row " + identitySeconds + "s");
+    }
+}
@@ -0,0 +1,195 @@
+package mos.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import mos.dto.OrderRequest;
+import mos.model.IdempotencyRecord;
+import mos.model.Order;
+import mos.repository.IdempotencyRecordRepository;
+
+class IdempotencyServiceTest {
+    private static final String CALLER = "alice";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ConcurrentHashMap<String, IdempotencyRecord> table = new ConcurrentHashMap<>();
+    private final IdempotencyRecordRepository repository = tableBackedRepository();
+    private final AtomicLong nextOrderId = new AtomicLong(100);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void concurrentDuplicatesCollapseIntoOneExecution() throws Exception {
+        IdempotencyService service = newService();
+        Supplier<Order> slowCreate = () -> {
+            sleep(200);
+            return createOrder();
+        };
+
+        int callers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<IdempotencyService.Result>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return service.execute(CALLER, "key-1", request(3), slowCreate);
+            }));
+        }
+        start.countDown();
+
+        int fresh = 0;
+        for (Future<IdempotencyService.Result> result : results) {
+            IdempotencyService.Result r = result.get();
+            assertEquals(100L, r.order().getId());
+            fresh += r.replayed() ? 0 : 1;
+        }
+        pool.shutdown();
+        assertEquals(1, executions.get());
+        assertEquals(1, fresh);
+    }
+
+    @Test
+    void repeatAfterCompletionReplaysWithoutExecuting() {
+        IdempotencyService service = newService();
+
+        IdempotencyService.Result first = service.execute(CALLER, "key-1", request(3), this::createOrder);
+        IdempotencyService.Result second = service.execute(CALLER, "key-1", request(3), this::createOrder);
+
+        assertFalse(first.replayed());
+        assertTrue(second.replayed());
+        assertEquals(first.order().getId(), second.order().getId());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void storedResponseIsReplayedByAnotherInstance() {
+        newService().execute(CALLER, "key-1", request(3), this::createOrder);
+
+        // Fresh instance: empty in-memory tier, the table still has the response
+        IdempotencyService.Result replay = newService().execute(CALLER, "key-1", request(3), this::createOrder);
+
+        assertTrue(replay.replayed());
+        assertEquals(100L, replay.order().getId());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void reusingKeyForDifferentRequestIsRejected() {
+        IdempotencyService service = newService();
+        service.execute(CALLER, "key-1", request(3), this::createOrder);
+
+        IdempotencyConflictException e = assertThrows(IdempotencyConflictException.class,
+            () -> service.execute(CALLER, "key-1", request(4), this::createOrder));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatus());
+    }
+
+    @Test
+    void keysAreScopedPerCaller() {
+        IdempotencyService service = newService();
+
+        Order mine = service.execute(CALLER, "key-1", request(3), this::createOrder).order();
+        Order theirs = service.execute("bob", "key-1", request(3), this::createOrder).order();
+
+        assertEquals(2, executions.get());
+        assertNotEquals(mine.getId(), theirs.getId());
+    }
+
+    @Test
+    void failedExecutionReleasesTheKey() {
+        IdempotencyService service = newService();
+
+        assertThrows(RuntimeException.class, () -> service.execute(CALLER, "key-1", request(3), () -> {
+            throw new RuntimeException("Insufficient inventory for product: p-1");
+        }));
+        verify(repository).release(CALLER + ":key-1");
+
+        IdempotencyService.Result retry = service.execute(CALLER, "key-1", request(3), this::createOrder);
+        assertFalse(retry.replayed());
+    }
+
+    private IdempotencyService newService() {
+        return new IdempotencyService(repository, objectMapper,
+            Duration.ofHours(24), Duration.ofSeconds(5), Duration.ofSeconds(30), 1000);
+    }
+
+    private Order createOrder() {
+        executions.incrementAndGet();
+        Order order = new Order();
+        order.setId(nextOrderId.getAndIncrement());
+        order.setCustomerId(1L);
+        order.setProductId("p-1");
+        order.setQuantity(3);
+        order.setTotalAmount(7.5);
+        order.setStatus(Order.OrderStatus.VALIDATED);
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+
+    private static OrderRequest request(int quantity) {
+        OrderRequest request = new OrderRequest();
+        request.setCustomerId(1L);
+        request.setProductId("p-1");
+        request.setQuantity(quantity);
+        return request;
+    }
+
+    // Mirrors the native claim/complete/release statements on a map
+    private IdempotencyRecordRepository tableBackedRepository() {
+        IdempotencyRecordRepository repo = mock(IdempotencyRecordRepository.class);
+        when(repo.claim(anyString(), anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setKey(invocation.getArgument(0));
+            record.setRequestHash(invocation.getArgument(1));
+            record.setCreatedAt(invocation.getArgument(2));
+            record.setExpiresAt(invocation.getArgument(3));
+            return table.putIfAbsent(record.getKey(), record) == null ? 1 : 0;
+        });
+        when(repo.findById(anyString())).thenAnswer(invocation ->
+            Optional.ofNullable(table.get(invocation.<String>getArgument(0))));
+        when(repo.complete(anyString(), anyLong(), anyString())).thenAnswer(invocation -> {
+            IdempotencyRecord record = table.get(invocation.<String>getArgument(0));
+            record.setOrderId(invocation.getArgument(1));
+            record.setResponseBody(invocation.getArgument(2));
+            return 1;
+        });
+        when(repo.release(anyString())).thenAnswer(invocation ->
+            table.remove(invocation.<String>getArgument(0)) == null ? 0 : 1);
+        return repo;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
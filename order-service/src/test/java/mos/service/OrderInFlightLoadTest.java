@@ -0,0 +1,130 @@
+package mos.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import mos.client.CustomerServiceClient;
+import mos.client.InventoryServiceClient;
+import mos.dto.OrderRequest;
+import reactor.core.publisher.Mono;
+
+/**
+ * Orders in flight at once when every request parks its thread in OrderValidator.validate(...).block()
+ * on a slow downstream, as createOrder does: Tomcat's default pool of 200 platform threads vs one
+ * virtual thread per request (spring.threads.virtual.enabled). It needs Java 21 and, since the
+ * numbers only mean something at a fixed heap, runs only when asked for:
+ *
+ * mvn test -Dtest=OrderInFlightLoadTest -Dorders.benchmark=true -DargLine="-Xmx256m -Djdk.tracePinnedThreads=short"
+ *
+ * tracePinnedThreads prints a stack for any virtual thread that blocks while holding a monitor.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIfSystemProperty(named = "orders.benchmark", matches = "true")
+class OrderInFlightLoadTest {
+    private static final long DOWNSTREAM_DELAY_MS = 300;
+    private static final int REQUESTS = 4_000;
+    // server.tomcat.threads.max default
+    private static final int PLATFORM_THREADS = 200;
+
+    private final OrderValidator validator = new OrderValidator(
+        new CustomerServiceClient(stubbedBuilder("{\"id\":1}"), "http://customer-service",
+            Duration.ZERO, Duration.ZERO, 1000, false, 0.01, ""),
+        new InventoryServiceClient(stubbedBuilder("{\"id\":\"p-1\",\"quantity\":10,\"price\":2.5}"),
+            "http://inventory-service", Duration.ZERO, Duration.ZERO, 0, Duration.ofSeconds(5)),
+        Duration.ofSeconds(30), Duration.ofSeconds(30), 16);
+
+    private record Run(int peakInFlight, int failed, long millis, long peakHeapBytes) {}
+
+    @Test
+    void virtualThreadsKeepFarMoreOrdersInFlight() throws Exception {
+        ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        Run platformRun;
+        try {
+            platformRun = run(platform);
+        } finally {
+            platform.shutdownNow();
+        }
+        SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("order-");
+        virtual.setVirtualThreads(true);
+        Run virtualRun = run(virtual);
+
+        System.out.printf("%d orders, %dms downstream, max heap %dMB%n", REQUESTS, DOWNSTREAM_DELAY_MS,
+            Runtime.getRuntime().maxMemory() >> 20);
+        System.out.printf("platform x%d: peak in flight %d, %dms, peak heap %dMB%n", PLATFORM_THREADS,
+            platformRun.peakInFlight(), platformRun.millis(), platformRun.peakHeapBytes() >> 20);
+        System.out.printf("virtual:      peak in flight %d, %dms, peak heap %dMB%n",
+            virtualRun.peakInFlight(), virtualRun.millis(), virtualRun.peakHeapBytes() >> 20);
+
+        assertEquals(0, platformRun.failed());
+        assertEquals(0, virtualRun.failed());
+        assertTrue(platformRun.peakInFlight() <= PLATFORM_THREADS);
+        assertTrue(virtualRun.peakInFlight() >= 5 * PLATFORM_THREADS,
+            "virtual threads peaked at " + virtualRun.peakInFlight() + " orders in flight");
+    }
+
+    private Run run(Executor executor) throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        Runtime runtime = Runtime.getRuntime();
+        long peakHeap = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            OrderRequest request = request(i);
+            executor.execute(() -> {
+                peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    validator.validate(request).block();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                } finally {
+                    inFlight.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        while (!done.await(10, TimeUnit.MILLISECONDS)) {
+            peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory());
+        }
+        long millis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        return new Run(peak.get(), failed.get(), millis, peakHeap);
+    }
+
+    // Distinct customers, so no two requests share a lookup
+    private static OrderRequest request(int i) {
+        OrderRequest request = new OrderRequest();
+        request.setCustomerId((long) i + 1);
+        request.setProductId("p-1");
+        request.setQuantity(1);
+        return request;
+    }
+
+    private static WebClient.Builder stubbedBuilder(String body) {
+        return WebClient.builder().exchangeFunction(request -> Mono.delay(Duration.ofMillis(DOWNSTREAM_DELAY_MS))
+            .map(tick -> ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build()));
+    }
+}
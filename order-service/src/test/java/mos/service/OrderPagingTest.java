@@ -0,0 +1,85 @@
+package mos.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import mos.client.CustomerServiceClient;
+import mos.client.InventoryServiceClient;
+import mos.dto.OrderCursor;
+import mos.dto.OrderPage;
+import mos.model.Order;
+import mos.repository.OrderBatchWriter;
+import mos.repository.OrderQueryRepository;
+import mos.repository.OrderRepository;
+
+class OrderPagingTest {
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 12, 0, 0, 123_456_000);
+
+    private final OrderQueryRepository queryRepository = mock(OrderQueryRepository.class);
+    private final OrderService service = new OrderService(mock(OrderRepository.class), queryRepository,
+        mock(CustomerServiceClient.class), mock(InventoryServiceClient.class), mock(OrderValidator.class),
+        mock(OutboxService.class), mock(OrderBatchWriter.class), mock(PlatformTransactionManager.class), 500, 100);
+
+    @Test
+    void fullPageCarriesCursorOfItsLastOrder() {
+        when(queryRepository.findPage(any(), any(), any(), anyInt())).thenReturn(orders(11));
+
+        OrderPage page = service.getOrders(null, null, null, 10);
+
+        assertEquals(10, page.orders().size());
+        OrderCursor next = OrderCursor.decode(page.nextCursor());
+        assertEquals(page.orders().get(9).getId(), next.id());
+        assertEquals(page.orders().get(9).getCreatedAt(), next.createdAt());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(queryRepository.findPage(any(), any(), any(), anyInt())).thenReturn(orders(3));
+
+        assertNull(service.getOrders(Order.OrderStatus.PAID, 7L, null, 10).nextCursor());
+        verify(queryRepository).findPage(eq(Order.OrderStatus.PAID), eq(7L), isNull(), eq(11));
+    }
+
+    @Test
+    void cursorIsPassedBackAsSeekPosition() {
+        String token = new OrderCursor(T0, 42L).encode();
+        when(queryRepository.findPage(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        service.getOrders(null, null, token, 10);
+
+        verify(queryRepository).findPage(isNull(), isNull(), eq(new OrderCursor(T0, 42L)), eq(11));
+    }
+
+    @Test
+    void badLimitOrCursorIsRejected() {
+        assertThrows(RuntimeException.class, () -> service.getOrders(null, null, null, 0));
+        assertThrows(RuntimeException.class, () -> service.getOrders(null, null, null, 101));
+        assertThrows(RuntimeException.class, () -> service.getOrders(null, null, "not-a-cursor", 10));
+    }
+
+    private static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setId(100L - i);
+            order.setCreatedAt(T0.minusSeconds(i));
+            orders.add(order);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,188 @@
+package mos.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import mos.client.CustomerServiceClient;
+import mos.client.InventoryServiceClient;
+import mos.dto.BatchOrderResponse;
+import mos.dto.BatchOrderResult;
+import mos.dto.OrderRequest;
+import mos.model.Order;
+import mos.repository.OrderBatchWriter;
+import mos.repository.OrderQueryRepository;
+import mos.repository.OrderRepository;
+import reactor.core.publisher.Mono;
+
+class OrderServiceBatchTest {
+    // Downstream data: customer 3 does not exist, p-low has 5 units, p-gone is unknown
+    private static final Map<String, String> PRODUCTS = Map.of(
+        "p-1", "{\"id\":\"p-1\",\"quantity\":100000,\"price\":2.5}",
+        "p-2", "{\"id\":\"p-2\",\"quantity\":100000,\"price\":4.0}",
+        "p-low", "{\"id\":\"p-low\",\"quantity\":5,\"price\":1.0}");
+
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final OrderBatchWriter orderBatchWriter = mock(OrderBatchWriter.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final OrderService service = newService();
+
+    @Test
+    void eachDistinctCustomerIsValidatedOnceAndProductsInOneLookup() {
+        List<OrderRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            batch.add(request(1L + i % 2, i % 2 == 0 ? "p-1" : "p-2", 1));
+        }
+
+        BatchOrderResponse response = service.createOrders(batch);
+
+        assertEquals(300, response.getCreated());
+        assertEquals(0, response.getRejected());
+        assertEquals(Map.of("/api/customers/1", 1, "/api/customers/2", 1, "/api/inventory/lookup", 1),
+            callCounts());
+    }
+
+    @Test
+    void acceptedOrdersAreWrittenAndEnqueuedAsOneBatch() {
+        List<OrderRequest> batch = List.of(request(1L, "p-1", 2), request(2L, "p-2", 1), request(1L, "p-2", 3));
+
+        BatchOrderResponse response = service.createOrders(batch);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Order>> written = ArgumentCaptor.forClass(List.class);
+        verify(orderBatchWriter).insertAll(written.capture());
+        verify(outboxService).enqueueOrderCreatedAll(written.getValue());
+        assertEquals(3, written.getValue().size());
+        assertEquals(5.0, written.getValue().get(0).getTotalAmount());
+        assertEquals(List.of(1000L, 1001L, 1002L),
+            response.getResults().stream().map(BatchOrderResult::getOrderId).toList());
+    }
+
+    @Test
+    void invalidItemsAreRejectedIndividually() {
+        List<OrderRequest> batch = List.of(
+            request(1L, "p-1", 1),
+            request(3L, "p-1", 1),
+            request(1L, "p-gone", 1),
+            request(1L, "p-low", 4),
+            request(2L, "p-low", 4),
+            request(2L, "p-1", 0));
+
+        List<BatchOrderResult> results = service.createOrders(batch).getResults();
+
+        assertEquals(List.of(BatchOrderResult.Status.CREATED, BatchOrderResult.Status.REJECTED,
+                BatchOrderResult.Status.REJECTED, BatchOrderResult.Status.CREATED,
+                BatchOrderResult.Status.REJECTED, BatchOrderResult.Status.REJECTED),
+            results.stream().map(BatchOrderResult::getStatus).toList());
+        assertEquals("Customer not found: 3", results.get(1).getError());
+        assertEquals("Insufficient inventory for product: p-gone", results.get(2).getError());
+        // Only 5 units of p-low: the first order takes 4, the second cannot be served
+        assertEquals("Insufficient inventory for product: p-low", results.get(4).getError());
+        assertNull(results.get(4).getOrderId());
+        assertEquals(5, results.get(5).getIndex());
+    }
+
+    @Test
+    void fullyRejectedBatchWritesNothing() {
+        BatchOrderResponse response = service.createOrders(List.of(request(3L, "p-1", 1)));
+
+        assertEquals(1, response.getRejected());
+        verify(orderBatchWriter, never()).insertAll(anyList());
+        verify(outboxService, never()).enqueueOrderCreatedAll(anyList());
+    }
+
+    @Test
+    void oversizedBatchIsRefused() {
+        List<OrderRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 501; i++) {
+            batch.add(request(1L, "p-1", 1));
+        }
+
+        assertThrows(RuntimeException.class, () -> service.createOrders(batch));
+        assertEquals(Map.of(), callCounts());
+    }
+
+    private OrderService newService() {
+        CustomerServiceClient customerClient = new CustomerServiceClient(stubbedBuilder(), "http://customer-service",
+            Duration.ZERO, Duration.ZERO, 1000, false, 0.01, "");
+        InventoryServiceClient inventoryClient = new InventoryServiceClient(stubbedBuilder(), "http://inventory-service",
+            Duration.ZERO, Duration.ZERO, 0, Duration.ofSeconds(5));
+        OrderValidator validator = new OrderValidator(customerClient, inventoryClient,
+            Duration.ofSeconds(5), Duration.ofSeconds(30), 16);
+
+        // Stand-in for the generated IDENTITY keys
+        AtomicLong nextId = new AtomicLong(1000);
+        doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            orders.forEach(order -> order.setId(nextId.getAndIncrement()));
+            return null;
+        }).when(orderBatchWriter).insertAll(anyList());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        return new OrderService(mock(OrderRepository.class), mock(OrderQueryRepository.class),
+            customerClient, inventoryClient, validator, outboxService, orderBatchWriter, transactionManager, 500, 500);
+    }
+
+    private WebClient.Builder stubbedBuilder() {
+        return WebClient.builder().exchangeFunction(request -> {
+            String path = request.url().getPath();
+            calls.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            String body;
+            if (path.startsWith("/api/customers/")) {
+                body = path.endsWith("/3") ? null : "{}";
+            } else if (path.equals("/api/inventory/lookup")) {
+                body = "[" + String.join(",", PRODUCTS.values()) + "]";
+            } else {
+                body = PRODUCTS.get(path.substring("/api/inventory/".length()));
+            }
+            ClientResponse response = body == null
+                ? ClientResponse.create(HttpStatus.NOT_FOUND).build()
+                : ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(body)
+                    .build();
+            return Mono.just(response);
+        });
+    }
+
+    private Map<String, Integer> callCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        calls.forEach((path, count) -> counts.put(path, count.get()));
+        return counts;
+    }
+
+    private static OrderRequest request(Long customerId, String productId, int quantity) {
+        OrderRequest request = new OrderRequest();
+        request.setCustomerId(customerId);
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        return request;
+    }
+}
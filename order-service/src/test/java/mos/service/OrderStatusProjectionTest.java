@@ -0,0 +1,77 @@
+package mos.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import mos.model.Order.OrderStatus;
+import mos.repository.OrderRepository;
+import mos.service.OrderStatusProjection.StatusChange;
+
+class OrderStatusProjectionTest {
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderStatusProjection projection = new OrderStatusProjection(orderRepository);
+
+    @Test
+    void statusOnlyMovesForward() {
+        assertTrue(OrderStatus.VALIDATED.canAdvanceTo(OrderStatus.PAID));
+        assertTrue(OrderStatus.VALIDATED.canAdvanceTo(OrderStatus.SHIPPING));
+        assertTrue(OrderStatus.SHIPPING.canAdvanceTo(OrderStatus.FAILED));
+        assertFalse(OrderStatus.SHIPPED.canAdvanceTo(OrderStatus.PAID));
+        assertFalse(OrderStatus.PAID.canAdvanceTo(OrderStatus.PAID));
+        assertFalse(OrderStatus.DELIVERED.canAdvanceTo(OrderStatus.CANCELLED));
+        assertFalse(OrderStatus.FAILED.canAdvanceTo(OrderStatus.SHIPPED));
+    }
+
+    @Test
+    void updatesOnlyOrdersStillBeforeTheTarget() {
+        assertEquals(EnumSet.of(OrderStatus.PENDING, OrderStatus.VALIDATED, OrderStatus.PAYMENT_PROCESSING),
+            OrderStatusProjection.predecessors(OrderStatus.PAID));
+        assertEquals(EnumSet.complementOf(EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED, OrderStatus.FAILED)),
+            OrderStatusProjection.predecessors(OrderStatus.FAILED));
+    }
+
+    @Test
+    void lateEventInTheSameBatchDoesNotMoveAnOrderBack() {
+        when(orderRepository.advanceStatus(anyCollection(), any(), anyCollection(), any())).thenReturn(1);
+
+        projection.apply(List.of(
+            new StatusChange(1L, OrderStatus.SHIPPING),
+            new StatusChange(1L, OrderStatus.SHIPPED),
+            new StatusChange(1L, OrderStatus.PAID)));
+
+        verify(orderRepository).advanceStatus(eq(List.of(1L)), eq(OrderStatus.SHIPPED),
+            eq(OrderStatusProjection.predecessors(OrderStatus.SHIPPED)), any());
+        verifyNoMoreInteractions(orderRepository);
+    }
+
+    @Test
+    void oneUpdatePerTargetStatus() {
+        when(orderRepository.advanceStatus(anyCollection(), any(), anyCollection(), any()))
+            .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        int moved = projection.apply(List.of(
+            new StatusChange(1L, OrderStatus.PAID),
+            new StatusChange(2L, OrderStatus.PAID),
+            new StatusChange(3L, OrderStatus.SHIPPING),
+            new StatusChange(2L, OrderStatus.PAID),
+            new StatusChange(4L, OrderStatus.PAID)));
+
+        assertEquals(4, moved);
+        verify(orderRepository).advanceStatus(eq(List.of(1L, 2L, 4L)), eq(OrderStatus.PAID), anyCollection(), any());
+        verify(orderRepository).advanceStatus(eq(List.of(3L)), eq(OrderStatus.SHIPPING), anyCollection(), any());
+        verifyNoMoreInteractions(orderRepository);
+    }
+}
@@ -0,0 +1,88 @@
+package mos.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import mos.client.CustomerServiceClient;
+import mos.client.InventoryServiceClient;
+import mos.dto.OrderRequest;
+import reactor.core.publisher.Mono;
+
+/**
+ * Compares sequential vs parallel order validation against stubbed downstream latencies. Timing
+ * depends on the machine, so it only runs when asked for:
+ *
+ * mvn test -Dtest=OrderValidatorBenchmarkTest -Dorders.benchmark=true
+ */
+@EnabledIfSystemProperty(named = "orders.benchmark", matches = "true")
+class OrderValidatorBenchmarkTest {
+    private static final long CUSTOMER_DELAY_MS = 40;
+    private static final long INVENTORY_DELAY_MS = 60;
+    private static final int ITERATIONS = 50;
+
+    // Client caches off, so every check pays the downstream latency
+    private final CustomerServiceClient customerClient = new CustomerServiceClient(
+        stubbedBuilder(CUSTOMER_DELAY_MS, "{\"id\":1}"), "http://customer-service",
+        Duration.ZERO, Duration.ZERO, 1000, false, 0.01, "");
+    private final InventoryServiceClient inventoryClient = new InventoryServiceClient(
+        stubbedBuilder(INVENTORY_DELAY_MS, "{\"id\":\"p-1\",\"quantity\":10,\"price\":2.5}"), "http://inventory-service",
+        Duration.ZERO, Duration.ZERO, 0, Duration.ofSeconds(5));
+    private final OrderValidator validator = new OrderValidator(customerClient, inventoryClient,
+        Duration.ofSeconds(5), Duration.ofSeconds(30), 16);
+
+    @Test
+    void parallelValidationCostsTheSlowerCallNotTheSum() {
+        OrderRequest request = new OrderRequest();
+        request.setCustomerId(1L);
+        request.setProductId("p-1");
+        request.setQuantity(2);
+
+        long[] sequential = new long[ITERATIONS];
+        long[] parallel = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            customerClient.customerExists(request.getCustomerId());
+            inventoryClient.checkInventory(request.getProductId(), request.getQuantity());
+            sequential[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            assertEquals(2.5, validator.validate(request).block().getPrice());
+            parallel[i] = System.nanoTime() - start;
+        }
+
+        long sequentialP50 = percentileMillis(sequential, 50);
+        long parallelP50 = percentileMillis(parallel, 50);
+        System.out.printf("sequential p50=%dms p99=%dms | parallel p50=%dms p99=%dms%n",
+            sequentialP50, percentileMillis(sequential, 99), parallelP50, percentileMillis(parallel, 99));
+
+        assertTrue(sequentialP50 >= CUSTOMER_DELAY_MS + INVENTORY_DELAY_MS);
+        assertTrue(parallelP50 < CUSTOMER_DELAY_MS + INVENTORY_DELAY_MS,
+            "parallel p50 should be close to the slower call, was " + parallelP50 + "ms");
+    }
+
+    private static WebClient.Builder stubbedBuilder(long delayMs, String body) {
+        return WebClient.builder().exchangeFunction(request -> Mono.delay(Duration.ofMillis(delayMs))
+            .map(tick -> ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build()));
+    }
+
+    private static long percentileMillis(long[] samplesNanos, int percentile) {
+        long[] sorted = samplesNanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+        return Duration.ofNanos(sorted[index]).toMillis();
+    }
+}
@@ -0,0 +1,84 @@
+package mos.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.events.OrderEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mos.model.OutboxEvent;
+import mos.repository.OutboxEventRepository;
+
+class OutboxRelayTest {
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, OrderEvent> kafkaTemplate = mock(KafkaTemplate.class);
+    private final OutboxRelay relay = new OutboxRelay(repository, kafkaTemplate,
+        new ObjectMapper().registerModule(new JavaTimeModule()), mock(PlatformTransactionManager.class),
+        new SimpleMeterRegistry(), 500, Duration.ofMillis(200), Duration.ofDays(7));
+
+    @Test
+    void sendThatFailsImmediatelyLeavesTheRowUnsent() {
+        when(repository.lockUnsentBatch(anyInt())).thenReturn(List.of(row(1L, "{\"orderId\":1}")));
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+            .thenThrow(new TimeoutException("Topic order-created not present in metadata after 200 ms."));
+
+        relay.relay();
+
+        verify(repository, never()).markSent(anyCollection(), any());
+    }
+
+    @Test
+    void onlyUnreadablePayloadsAreDropped() {
+        when(repository.lockUnsentBatch(anyInt())).thenReturn(List.of(row(1L, "not json"), row(2L, "{\"orderId\":2}")));
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        relay.relay();
+
+        verify(repository).markSent(eq(List.of(1L)), any());
+    }
+
+    @Test
+    @Timeout(30)
+    void unacknowledgedSendsAreLeftForTheNextPassAfterTheDeadline() {
+        when(repository.lockUnsentBatch(anyInt())).thenReturn(List.of(row(1L, "{\"orderId\":1}"), row(2L, "{\"orderId\":2}")));
+        CompletableFuture<SendResult<String, OrderEvent>> acked = CompletableFuture.completedFuture(null);
+        when(kafkaTemplate.send(anyString(), eq("1"), any())).thenReturn(acked);
+        when(kafkaTemplate.send(anyString(), eq("2"), any())).thenReturn(new CompletableFuture<>());
+
+        relay.relay();
+
+        verify(repository).markSent(eq(List.of(1L)), any());
+        verify(kafkaTemplate, never()).flush();
+    }
+
+    private static OutboxEvent row(Long id, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateId(id);
+        event.setTopic("order-created");
+        event.setPayload(payload);
+        return event;
+    }
+}
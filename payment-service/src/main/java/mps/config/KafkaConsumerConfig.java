@@ -1,19 +1,34 @@
 package mps.config;
 
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
-import mps.events.OrderEvent;
+import com.example.events.OrderEvent;
+import com.example.events.OrderEventDeserializer;
+import mps.listener.OrderEventRetryTopics;
 
 @Configuration
 public class KafkaConsumerConfig {
@@ -21,16 +36,30 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
     
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    // One consumer thread per partition at most; extra threads beyond the partition count stay idle
+    @Value("${kafka.listener.concurrency:3}")
+    private int concurrency;
+    
+    @Value("${kafka.listener.max-poll-records:500}")
+    private int maxPollRecords;
+    
+    @Value("${kafka.retry.initial-delay-ms:1000}")
+    private long retryInitialDelayMs;
+    
     @Bean
     public ConsumerFactory<String, OrderEvent> consumerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ConsumerConfig.GROUP_ID_CONFIG, "payment-service-group");
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        config.put(JsonDeserializer.VALUE_DEFAULT_TYPE, OrderEvent.class.getName());
-        config.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        // A record that can't be decoded reaches the listener as a null value with the failure in
+        // its headers, instead of failing every poll of its partition
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, OrderEventDeserializer.class);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         
         return new DefaultKafkaConsumerFactory<>(config);
     }
@@ -40,6 +69,65 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        useListenerThreads(factory);
+        factory.setConcurrency(concurrency);
         return factory;
     }
+    
+    // Hands each poll to the listener as one list; offsets are committed once per batch
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> batchKafkaListenerContainerFactory(
+            KafkaTemplate<String, OrderEvent> kafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory = 
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        useListenerThreads(factory);
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(batchErrorHandler(kafkaTemplate));
+        return factory;
+    }
+    
+    // A record that fails inside a batch (BatchListenerFailedException) goes straight to the first
+    // retry topic with no blocking retries; records before it are committed, the rest redelivered
+    private DefaultErrorHandler batchErrorHandler(KafkaTemplate<String, OrderEvent> kafkaTemplate) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+            (record, ex) -> new TopicPartition(undecodable(ex)
+                ? OrderEventRetryTopics.DLT_TOPIC : OrderEventRetryTopics.FIRST_RETRY_TOPIC, -1));
+        recoverer.setHeadersFunction((record, ex) -> undecodable(ex)
+            ? new RecordHeaders() : retryTopicHeaders(System.currentTimeMillis() + retryInitialDelayMs));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(0L, 0L));
+        errorHandler.addNotRetryableExceptions(DeserializationException.class);
+        return errorHandler;
+    }
+    
+    // What the retry topic's own consumer reads back: the attempt number as a 4-byte int and the
+    // due time as BigInteger bytes. Spring writes these itself only for records it forwards
+    static Headers retryTopicHeaders(long dueAtMillis) {
+        Headers headers = new RecordHeaders();
+        headers.add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, ByteBuffer.allocate(Integer.BYTES).putInt(2).array());
+        headers.add(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP, BigInteger.valueOf(dueAtMillis).toByteArray());
+        return headers;
+    }
+    
+    // Retrying can't fix bytes that don't decode, so those go straight to the DLT
+    private static boolean undecodable(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Boot switches its own listener factory to virtual threads under spring.threads.virtual.enabled;
+    // these factories are declared here, so they follow the same switch explicitly
+    private void useListenerThreads(ConcurrentKafkaListenerContainerFactory<?, ?> factory) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("payment-kafka-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
 }
\ No newline at end of file
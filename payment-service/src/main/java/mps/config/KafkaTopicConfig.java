@@ -0,0 +1,28 @@
+package mps.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+import mps.service.PaymentResultPublisher;
+
+@Configuration
+public class KafkaTopicConfig {
+    
+    // Keyed by order id, so the results for one order stay in order on a single partition
+    @Value("${kafka.topics.payment-completed.partitions:6}")
+    private int paymentCompletedPartitions;
+    
+    @Value("${kafka.topics.payment-completed.replicas:1}")
+    private int paymentCompletedReplicas;
+    
+    @Bean
+    public NewTopic paymentCompletedTopic() {
+        return TopicBuilder.name(PaymentResultPublisher.TOPIC)
+                .partitions(paymentCompletedPartitions)
+                .replicas(paymentCompletedReplicas)
+                .build();
+    }
+}
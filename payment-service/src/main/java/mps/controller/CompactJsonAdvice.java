@@ -0,0 +1,43 @@
+package mps.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Unwraps EntityModel/CollectionModel when the negotiated type is plain application/json, so
+ * callers that never follow links do not pay for them. HAL is still served by default
+ * (spring.hateoas.use-hal-as-default-json-media-type=false).
+ */
+@RestControllerAdvice
+public class CompactJsonAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!MediaType.APPLICATION_JSON.equalsTypeAndSubtype(selectedContentType)) {
+            return body;
+        }
+        if (body instanceof EntityModel<?> model) {
+            return model.getContent();
+        }
+        if (body instanceof CollectionModel<?> collection) {
+            return collection.getContent().stream()
+                .map(item -> item instanceof EntityModel<?> model ? model.getContent() : item)
+                .toList();
+        }
+        return body;
+    }
+}
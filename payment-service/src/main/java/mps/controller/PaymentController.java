@@ -5,8 +5,7 @@ import java.util.stream.Collectors;
 
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import org.springframework.hateoas.Link;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,6 +18,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import mps.model.Payment;
 import mps.service.PaymentService;
@@ -42,13 +42,14 @@ public class PaymentController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<CollectionModel<EntityModel<Payment>>> getAllPayments() {
+        String base = baseUri();
         List<EntityModel<Payment>> payments = paymentService.getAllPayments()
             .stream()
-            .map(this::toModel)
+            .map(payment -> toModel(payment, base))
             .collect(Collectors.toList());
         
         CollectionModel<EntityModel<Payment>> collectionModel = CollectionModel.of(payments);
-        collectionModel.add(linkTo(methodOn(PaymentController.class).getAllPayments()).withSelfRel());
+        collectionModel.add(Link.of(base + "/api/payments").withSelfRel());
         
         return ResponseEntity.ok(collectionModel);
     }
@@ -82,16 +83,25 @@ public class PaymentController {
     }
     
     private EntityModel<Payment> toModel(Payment payment) {
+        return toModel(payment, baseUri());
+    }
+    
+    // Fixed path templates expanded by concatenation, no linkTo(methodOn(...)) proxies
+    private EntityModel<Payment> toModel(Payment payment, String baseUri) {
         EntityModel<Payment> model = EntityModel.of(payment);
         
-        model.add(linkTo(methodOn(PaymentController.class).getPayment(payment.getId())).withSelfRel());
-        model.add(linkTo(methodOn(PaymentController.class).getAllPayments()).withRel("payments"));
-        model.add(linkTo(methodOn(PaymentController.class).getPaymentByOrderId(payment.getOrderId()))
-            .withRel("payment-by-order"));
+        model.add(Link.of(baseUri + "/api/payments/" + payment.getId()).withSelfRel());
+        model.add(Link.of(baseUri + "/api/payments", "payments"));
+        model.add(Link.of(baseUri + "/api/payments/order/" + payment.getOrderId(), "payment-by-order"));
         
         return model;
     }
     
+    // Resolved once per request and shared by every link in the response
+    private static String baseUri() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+    }
+    
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleException(RuntimeException e) {
         return ResponseEntity.badRequest().body(e.getMessage());
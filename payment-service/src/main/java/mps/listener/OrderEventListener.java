@@ -1,52 +1,166 @@
 package mps.listener;
 
-import mps.events.OrderEvent;
+import com.example.events.OrderEvent;
 import mps.model.Payment;
+import mps.repository.PaymentBatchWriter;
 import mps.repository.PaymentRepository;
+import mps.service.PaymentResultPublisher;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Component
 public class OrderEventListener {
     private static final Logger log = LoggerFactory.getLogger(OrderEventListener.class);
+    private static final LogAccessor deserializationLog = new LogAccessor(OrderEventListener.class);
     private final PaymentRepository paymentRepository;
+    private final PaymentBatchWriter paymentBatchWriter;
+    private final PaymentResultPublisher resultPublisher;
     
-    public OrderEventListener(PaymentRepository paymentRepository) {
+    public OrderEventListener(PaymentRepository paymentRepository, PaymentBatchWriter paymentBatchWriter,
+                              PaymentResultPublisher resultPublisher) {
         this.paymentRepository = paymentRepository;
+        this.paymentBatchWriter = paymentBatchWriter;
+        this.resultPublisher = resultPublisher;
     }
     
-    @KafkaListener(topics = "order-created", groupId = "payment-service-group")
+    // Failures leave the main topic immediately and are retried from order-created-payment-retry-N
+    // with exponential backoff, so one bad record never stalls the partition behind it
+    @RetryableTopic(
+        attempts = "${kafka.retry.attempts:4}",
+        backoff = @Backoff(delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+                           multiplierExpression = "${kafka.retry.multiplier:2.0}",
+                           maxDelayExpression = "${kafka.retry.max-delay-ms:30000}"),
+        retryTopicSuffix = OrderEventRetryTopics.RETRY_SUFFIX,
+        dltTopicSuffix = OrderEventRetryTopics.DLT_SUFFIX,
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        numPartitions = "${kafka.topics.order-created.partitions:6}",
+        kafkaTemplate = "kafkaTemplate")
+    @KafkaListener(id = OrderEventRetryTopics.LISTENER_ID, topics = OrderEventRetryTopics.MAIN_TOPIC,
+                   groupId = "payment-service-group",
+                   autoStartup = "#{!${kafka.listener.batch:false}}")
     public void handleOrderCreated(OrderEvent event) {
         log.info("Payment service received order event: {}", event.getOrderId());
+        processOrderCreated(event);
+    }
+    
+    // Batch mode: one existence lookup and one JDBC batch insert per poll
+    @KafkaListener(topics = OrderEventRetryTopics.MAIN_TOPIC, groupId = "payment-service-group",
+                   containerFactory = "batchKafkaListenerContainerFactory",
+                   autoStartup = "${kafka.listener.batch:false}")
+    public void handleOrderCreatedBatch(List<ConsumerRecord<String, OrderEvent>> records) {
+        List<OrderEvent> events = decoded(records);
+        log.info("Payment service received {} order events", events.size());
         
         try {
-            // Check if payment already exists
-            if (paymentRepository.findByOrderId(event.getOrderId()).isPresent()) {
-                log.warn("Payment already exists for order: {}", event.getOrderId());
-                return;
+            // Redeliveries can repeat an order inside one poll, keep the first occurrence
+            Map<Long, OrderEvent> byOrderId = new LinkedHashMap<>();
+            for (OrderEvent event : events) {
+                byOrderId.putIfAbsent(event.getOrderId(), event);
             }
             
-            // Create payment
-            Payment payment = new Payment();
-            payment.setOrderId(event.getOrderId());
-            payment.setAmount(event.getTotalAmount());
-            payment.setStatus("COMPLETED");
-            payment.setPaymentMethod("CREDIT_CARD");
-            payment.setTransactionId("TXN-" + UUID.randomUUID().toString().substring(0, 12).toUpperCase());
-            payment.setPaymentDate(LocalDateTime.now());
+            List<Payment> existing = paymentRepository.findByOrderIdIn(byOrderId.keySet());
+            existing.forEach(payment -> byOrderId.remove(payment.getOrderId()));
+            
+            List<Payment> payments = byOrderId.values().stream()
+                .map(this::newPayment)
+                .toList();
+            paymentBatchWriter.insertAll(payments);
             
-            payment = paymentRepository.save(payment);
+            // Results of redelivered orders are published again: the previous attempt may have
+            // stored the payment and then failed to publish
+            List<Payment> results = new ArrayList<>(existing);
+            results.addAll(payments);
+            resultPublisher.publish(results);
             
-            log.info("Payment processed successfully: {} for order: {} with transaction: {}", 
-                    payment.getId(), event.getOrderId(), payment.getTransactionId());
+            log.info("Payments processed successfully for {} orders ({} skipped as duplicates)", 
+                    payments.size(), events.size() - payments.size());
             
         } catch (Exception e) {
-            log.error("Error processing payment for order {}: {}", event.getOrderId(), e.getMessage(), e);
+            log.warn("Payment batch of {} events failed, falling back to per-record processing: {}", 
+                    events.size(), e.getMessage());
+            processIndividually(events);
+        }
+    }
+    
+    // ErrorHandlingDeserializer leaves undecodable records in the batch with a null value; failing
+    // on the first one hands it to the DLT and redelivers the records after it
+    private static List<OrderEvent> decoded(List<ConsumerRecord<String, OrderEvent>> records) {
+        List<OrderEvent> events = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            DeserializationException failure = SerializationUtils.getExceptionFromHeader(records.get(i),
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, deserializationLog);
+            if (failure != null) {
+                throw new BatchListenerFailedException("Undecodable order event at offset "
+                    + records.get(i).offset(), failure, i);
+            }
+            events.add(records.get(i).value());
+        }
+        return events;
+    }
+    
+    @DltHandler
+    public void handleDeadLetter(OrderEvent event,
+                                 @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+        log.error("Order event for order {} moved to {} after exhausting retries: {}", 
+                event.getOrderId(), OrderEventRetryTopics.DLT_TOPIC, error);
+    }
+    
+    // Identifies the failing record so the error handler commits the ones before it
+    // and hands just that record to the retry topic
+    private void processIndividually(List<OrderEvent> events) {
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                processOrderCreated(events.get(i));
+            } catch (Exception e) {
+                throw new BatchListenerFailedException("Payment failed for order " + events.get(i).getOrderId(), e, i);
+            }
+        }
+    }
+    
+    void processOrderCreated(OrderEvent event) {
+        // Check if payment already exists
+        var existing = paymentRepository.findByOrderId(event.getOrderId());
+        if (existing.isPresent()) {
+            log.warn("Payment already exists for order: {}", event.getOrderId());
+            resultPublisher.publish(List.of(existing.get()));
+            return;
         }
+        
+        Payment payment = paymentRepository.save(newPayment(event));
+        resultPublisher.publish(List.of(payment));
+        
+        log.info("Payment processed successfully: {} for order: {} with transaction: {}", 
+                payment.getId(), event.getOrderId(), payment.getTransactionId());
+    }
+    
+    private Payment newPayment(OrderEvent event) {
+        Payment payment = new Payment();
+        payment.setOrderId(event.getOrderId());
+        payment.setAmount(event.getTotalAmount());
+        payment.setStatus("COMPLETED");
+        payment.setPaymentMethod("CREDIT_CARD");
+        payment.setTransactionId("TXN-" + UUID.randomUUID().toString().substring(0, 12).toUpperCase());
+        payment.setPaymentDate(LocalDateTime.now());
+        return payment;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package mps.listener;
+
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Names of the payment-scoped retry and dead-letter topics for order-created. They carry the
+ * service name so that a record failing here is not re-processed by the other consumer groups.
+ */
+@Component
+public class OrderEventRetryTopics {
+    public static final String MAIN_TOPIC = "order-created";
+    public static final String LISTENER_ID = "payment-order-created";
+    public static final String RETRY_SUFFIX = "-payment-retry";
+    public static final String DLT_SUFFIX = "-payment-dlt";
+    public static final String FIRST_RETRY_TOPIC = MAIN_TOPIC + RETRY_SUFFIX + "-0";
+    public static final String DLT_TOPIC = MAIN_TOPIC + DLT_SUFFIX;
+    
+    private final KafkaListenerEndpointRegistry registry;
+    private final boolean batchMode;
+    
+    public OrderEventRetryTopics(KafkaListenerEndpointRegistry registry,
+                                 @Value("${kafka.listener.batch:false}") boolean batchMode) {
+        this.registry = registry;
+        this.batchMode = batchMode;
+    }
+    
+    // In batch mode the record endpoint stays stopped on the main topic, but its retry and
+    // DLT containers still have to run to drain what the batch listener handed off
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRetryContainersInBatchMode() {
+        if (!batchMode) {
+            return;
+        }
+        Collection<MessageListenerContainer> containers = registry.getListenerContainers();
+        for (MessageListenerContainer container : containers) {
+            String id = container.getListenerId();
+            if (id != null && id.startsWith(LISTENER_ID + "-") && !container.isRunning()) {
+                container.start();
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package mps.repository;
+
+import jakarta.persistence.EntityManager;
+import mps.model.Payment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Hibernate batches these inserts now that ids come from the pooled payments_seq instead of IDENTITY;
+// the persistence context is flushed and cleared per chunk so it never holds a whole poll
+@Repository
+public class PaymentBatchWriter {
+    private final EntityManager entityManager;
+    private final int batchSize;
+    
+    public PaymentBatchWriter(EntityManager entityManager,
+                              @Value("${payments.insert-batch-size:500}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+    
+    @Transactional
+    public void insertAll(List<Payment> payments) {
+        for (int i = 0; i < payments.size(); i++) {
+            entityManager.persist(payments.get(i));
+            if ((i + 1) % batchSize == 0 || i == payments.size() - 1) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+    }
+}
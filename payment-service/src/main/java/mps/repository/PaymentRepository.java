@@ -4,9 +4,12 @@ import mps.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrderId(Long orderId);
-}
\ No newline at end of file
+    List<Payment> findByOrderIdIn(Collection<Long> orderIds);
+}
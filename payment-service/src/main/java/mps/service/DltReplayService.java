@@ -0,0 +1,84 @@
+package mps.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.events.OrderEvent;
+import mps.listener.OrderEventRetryTopics;
+
+/**
+ * Moves records from the payment dead-letter topic back into the first retry topic. Progress is
+ * tracked with a dedicated consumer group, so each dead letter is replayed at most once per call.
+ */
+@Service
+public class DltReplayService {
+    private static final Logger log = LoggerFactory.getLogger(DltReplayService.class);
+    private static final String REPLAY_GROUP = "payment-service-dlt-replay";
+    
+    private final ConsumerFactory<String, OrderEvent> consumerFactory;
+    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    
+    public DltReplayService(ConsumerFactory<String, OrderEvent> consumerFactory,
+                            KafkaTemplate<String, OrderEvent> kafkaTemplate) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+    }
+    
+    public int replay(int maxRecords) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(maxRecords, 500));
+        
+        try (Consumer<String, OrderEvent> consumer = consumerFactory.createConsumer(REPLAY_GROUP, null, null, overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(OrderEventRetryTopics.DLT_TOPIC).stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+            consumer.assign(partitions);
+            
+            int replayed = 0;
+            while (replayed < maxRecords) {
+                List<ConsumerRecord<String, OrderEvent>> records = new ArrayList<>();
+                consumer.poll(Duration.ofSeconds(1)).forEach(records::add);
+                if (records.isEmpty()) {
+                    break;
+                }
+                
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                for (ConsumerRecord<String, OrderEvent> record : records) {
+                    if (replayed == maxRecords) {
+                        break;
+                    }
+                    sends.add(kafkaTemplate.send(OrderEventRetryTopics.FIRST_RETRY_TOPIC, record.key(), record.value()));
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                        new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+                
+                // Only advance the replay group once the records are safely in the retry topic
+                CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+                consumer.commitSync(offsets);
+            }
+            
+            log.info("Replayed {} dead-lettered order events into {}", replayed, OrderEventRetryTopics.FIRST_RETRY_TOPIC);
+            return replayed;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package mps.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.events.OrderEvent;
+import mps.model.Payment;
+
+/**
+ * Publishes payment outcomes on payment-completed, keyed by order id, for order-service's status
+ * projection. The event's status is the payment status (COMPLETED, FAILED, ...).
+ */
+@Component
+public class PaymentResultPublisher {
+    public static final String TOPIC = "payment-completed";
+
+    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final Duration sendTimeout;
+
+    public PaymentResultPublisher(KafkaTemplate<String, OrderEvent> kafkaTemplate,
+                                  @Value("${kafka.producer.send-timeout:10s}") Duration sendTimeout) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.sendTimeout = sendTimeout;
+    }
+
+    // Returns once the broker has acknowledged every event; a failure is thrown so the order
+    // event that led here is retried and the result published again
+    public void publish(Collection<Payment> payments) {
+        CompletableFuture<?>[] sends = payments.stream()
+            .map(payment -> kafkaTemplate.send(TOPIC, String.valueOf(payment.getOrderId()), toEvent(payment)))
+            .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while publishing payment results", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Could not publish " + sends.length + " payment results", e);
+        }
+    }
+
+    private static OrderEvent toEvent(Payment payment) {
+        return new OrderEvent(payment.getOrderId(), null, null, null, payment.getAmount(), payment.getStatus());
+    }
+}
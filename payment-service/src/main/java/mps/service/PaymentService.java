@@ -10,9 +10,11 @@ import mps.repository.PaymentRepository;
 @Service
 public class PaymentService {
     private final PaymentRepository paymentRepository;
+    private final PaymentResultPublisher resultPublisher;
     
-    public PaymentService(PaymentRepository paymentRepository) {
+    public PaymentService(PaymentRepository paymentRepository, PaymentResultPublisher resultPublisher) {
         this.paymentRepository = paymentRepository;
+        this.resultPublisher = resultPublisher;
     }
     
     public Payment getPayment(Long id) {
@@ -30,7 +32,9 @@ public class PaymentService {
     }
     
     public Payment createPayment(Payment payment) {
-        return paymentRepository.save(payment);
+        Payment created = paymentRepository.save(payment);
+        resultPublisher.publish(List.of(created));
+        return created;
     }
     
     public Payment updatePayment(Long id, Payment payment) {
@@ -38,13 +42,19 @@ public class PaymentService {
         if (payment.getAmount() != null) {
             existing.setAmount(payment.getAmount());
         }
+        boolean statusChanged = payment.getStatus() != null && !payment.getStatus().equals(existing.getStatus());
         if (payment.getStatus() != null) {
             existing.setStatus(payment.getStatus());
         }
         if (payment.getPaymentMethod() != null) {
             existing.setPaymentMethod(payment.getPaymentMethod());
         }
-        return paymentRepository.save(existing);
+        Payment saved = paymentRepository.save(existing);
+        // The order's status follows the payment's
+        if (statusChanged) {
+            resultPublisher.publish(List.of(saved));
+        }
+        return saved;
     }
     
     public void deletePayment(Long id) {
@@ -0,0 +1,4 @@
+-- payments.id used to be an IDENTITY column; ids now come from payments_seq (pooled, 50 per call).
+-- Moves the sequence past every id already in the table. Runs after Hibernate's schema update
+-- on every start and only ever moves the sequence forward.
+SELECT setval('payments_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 100 FROM payments), (SELECT last_value FROM payments_seq)));
@@ -0,0 +1,69 @@
+package mps.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.KafkaConsumerBackoffManager;
+import org.springframework.kafka.listener.adapter.KafkaBackoffAwareMessageListenerAdapter;
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory;
+import org.springframework.kafka.retrytopic.DestinationTopicResolver;
+
+import com.example.events.OrderEvent;
+import mps.listener.OrderEventRetryTopics;
+
+// The batch handler writes the retry-topic headers itself; these checks read them back through the
+// same Spring Kafka classes that consume the retry topics, so a format change there fails here
+class KafkaConsumerConfigTest {
+
+    @Test
+    void retryTopicConsumerReadsTheAttemptNumber() {
+        AtomicInteger attempts = new AtomicInteger();
+        DestinationTopicResolver resolver = mock(DestinationTopicResolver.class);
+        when(resolver.resolveDestinationTopic(anyString(), anyString(), any(), any(), anyLong()))
+            .thenAnswer(invocation -> {
+                attempts.set(invocation.getArgument(2));
+                throw new ResolvedException();
+            });
+        var recoverer = new DeadLetterPublishingRecovererFactory(resolver).create(OrderEventRetryTopics.LISTENER_ID);
+
+        assertThrows(ResolvedException.class,
+            () -> recoverer.accept(retryRecord(System.currentTimeMillis()), new IllegalStateException("db down")));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void retryTopicConsumerWaitsUntilTheDueTime() {
+        long dueAt = System.currentTimeMillis() + 60_000;
+        AtomicLong backedOffUntil = new AtomicLong();
+        KafkaConsumerBackoffManager backoffManager = context -> backedOffUntil.set(context.getDueTimestamp());
+        var adapter = new KafkaBackoffAwareMessageListenerAdapter<String, OrderEvent>(record -> { },
+            backoffManager, OrderEventRetryTopics.LISTENER_ID, Clock.systemUTC());
+
+        adapter.onMessage(retryRecord(dueAt), null, mock(Consumer.class));
+        assertEquals(dueAt, backedOffUntil.get());
+    }
+
+    private static ConsumerRecord<String, OrderEvent> retryRecord(long dueAt) {
+        Headers headers = KafkaConsumerConfig.retryTopicHeaders(dueAt);
+        return new ConsumerRecord<>(OrderEventRetryTopics.FIRST_RETRY_TOPIC, 0, 0L, 0L, TimestampType.CREATE_TIME,
+            0, 0, "1", new OrderEvent(), headers, Optional.empty());
+    }
+
+    private static class ResolvedException extends RuntimeException {
+    }
+}
@@ -0,0 +1,117 @@
+package mps.listener;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.events.OrderEvent;
+import com.example.events.OrderEventSerializer;
+import mps.config.KafkaConsumerConfig;
+
+// Order-created consumption with 1 vs N listener threads on a keyed, multi-partition topic. Per-order
+// ordering is always checked; the wall-clock speedup only on request, as it is noisy on a loaded machine:
+// mvn test -Dtest=OrderEventConsumerScalingTest -Dpayments.benchmark=true
+@EmbeddedKafka(partitions = OrderEventConsumerScalingTest.PARTITIONS, topics = { "order-4", "scale-1", "scale-4" })
+class OrderEventConsumerScalingTest {
+    static final int PARTITIONS = 8;
+    private static final int ORDERS = 200;
+    private static final int EVENTS_PER_ORDER = 2;
+    private static final long WORK_MS = 5;
+
+    @Test
+    void concurrentListenersKeepEachOrdersEventsInOrder(EmbeddedKafkaBroker broker) throws Exception {
+        consumeAll(broker, "order-4", 4);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "payments.benchmark", matches = "true")
+    void throughputScalesWithListenerConcurrency(EmbeddedKafkaBroker broker) throws Exception {
+        long single = consumeAll(broker, "scale-1", 1);
+        long concurrent = consumeAll(broker, "scale-4", 4);
+
+        double speedup = (double) single / concurrent;
+        System.out.printf("1 consumer: %dms, 4 consumers: %dms, speedup %.2fx%n", single, concurrent, speedup);
+        assertTrue(speedup >= 2.5, "expected near-linear scaling, got " + speedup + "x");
+    }
+
+    private long consumeAll(EmbeddedKafkaBroker broker, String topic, int concurrency) throws Exception {
+        KafkaConsumerConfig config = new KafkaConsumerConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", broker.getBrokersAsString());
+        ReflectionTestUtils.setField(config, "concurrency", concurrency);
+        ReflectionTestUtils.setField(config, "maxPollRecords", 500);
+
+        ConcurrentMessageListenerContainer<String, OrderEvent> container =
+            config.kafkaListenerContainerFactory().createContainer(topic);
+        container.getContainerProperties().setGroupId(topic + "-group");
+        Properties consumerProps = new Properties();
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        container.getContainerProperties().setKafkaConsumerProperties(consumerProps);
+
+        CountDownLatch latch = new CountDownLatch(ORDERS * EVENTS_PER_ORDER);
+        Map<Long, Integer> lastSequence = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        container.setupMessageListener((MessageListener<String, OrderEvent>) record -> {
+            OrderEvent event = record.value();
+            Integer previous = lastSequence.put(event.getOrderId(), event.getQuantity());
+            if (previous != null && previous > event.getQuantity()) {
+                outOfOrder.incrementAndGet();
+            }
+            try {
+                Thread.sleep(WORK_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            latch.countDown();
+        });
+        container.start();
+        try {
+            ContainerTestUtils.waitForAssignment(container, PARTITIONS);
+
+            long start = System.nanoTime();
+            KafkaTemplate<String, OrderEvent> template = template(broker);
+            for (int sequence = 0; sequence < EVENTS_PER_ORDER; sequence++) {
+                for (long orderId = 1; orderId <= ORDERS; orderId++) {
+                    OrderEvent event = new OrderEvent();
+                    event.setOrderId(orderId);
+                    event.setQuantity(sequence);
+                    template.send(topic, String.valueOf(orderId), event);
+                }
+            }
+            template.flush();
+
+            assertTrue(latch.await(60, TimeUnit.SECONDS), "not all events consumed");
+            assertTrue(outOfOrder.get() == 0, "events of one order were reordered");
+            return Duration.ofNanos(System.nanoTime() - start).toMillis();
+        } finally {
+            container.stop();
+        }
+    }
+
+    private static KafkaTemplate<String, OrderEvent> template(EmbeddedKafkaBroker broker) {
+        Map<String, Object> props = KafkaTestUtils.producerProps(broker);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, OrderEventSerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+}
@@ -0,0 +1,222 @@
+package mps.listener;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.events.OrderEvent;
+import com.example.events.OrderEventDeserializer;
+import mps.config.KafkaConsumerConfig;
+import mps.config.KafkaProducerConfig;
+import mps.model.Payment;
+import mps.repository.PaymentBatchWriter;
+import mps.repository.PaymentRepository;
+import mps.service.PaymentResultPublisher;
+
+// A failing order is retried through the payment retry topics and dead-lettered with failure
+// headers, while healthy orders on the same partition keep flowing (batch and record mode)
+@SpringBootTest(classes = OrderEventRetryTopicsTest.TestConfig.class, properties = {
+    "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+    "kafka.listener.concurrency=1",
+    "kafka.topics.order-created.partitions=1",
+    "kafka.retry.attempts=3",
+    "kafka.retry.initial-delay-ms=100",
+    "kafka.retry.max-delay-ms=200"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@EmbeddedKafka(partitions = 1, topics = { OrderEventRetryTopics.MAIN_TOPIC, OrderEventRetryTopics.DLT_TOPIC })
+class OrderEventRetryTopicsTest {
+    @Configuration
+    @EnableKafka
+    @Import({ KafkaConsumerConfig.class, KafkaProducerConfig.class, OrderEventListener.class, OrderEventRetryTopics.class })
+    static class TestConfig {
+    }
+
+    @MockitoBean
+    private PaymentRepository paymentRepository;
+
+    @MockitoBean
+    private PaymentBatchWriter paymentBatchWriter;
+
+    @MockitoBean
+    private PaymentResultPublisher resultPublisher;
+
+    @Autowired
+    private KafkaTemplate<String, OrderEvent> kafkaTemplate;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry registry;
+
+    // application.yml ships with kafka.listener.batch=true
+    @Test
+    void batchModeHandsFailingRecordToRetryTopics() {
+        assertPoisonOrderIsDeadLettered(1L, 2L);
+    }
+
+    @Test
+    void recordModeRetriesThroughRetryTopics() {
+        // Same switch kafka.listener.batch=false makes at startup
+        registry.getListenerContainers().stream()
+            .filter(container -> !container.getListenerId().startsWith(OrderEventRetryTopics.LISTENER_ID))
+            .forEach(MessageListenerContainer::stop);
+        registry.getListenerContainer(OrderEventRetryTopics.LISTENER_ID).start();
+
+        assertPoisonOrderIsDeadLettered(3L, 4L);
+    }
+    
+    @Test
+    void batchModeDeadLettersUndecodableRecordWithoutRetrying() {
+        assertUndecodableRecordIsDeadLettered(5L);
+    }
+    
+    @Test
+    void recordModeDeadLettersUndecodableRecordWithoutRetrying() {
+        registry.getListenerContainers().stream()
+            .filter(container -> !container.getListenerId().startsWith(OrderEventRetryTopics.LISTENER_ID))
+            .forEach(MessageListenerContainer::stop);
+        registry.getListenerContainer(OrderEventRetryTopics.LISTENER_ID).start();
+
+        assertUndecodableRecordIsDeadLettered(6L);
+    }
+
+    private void assertPoisonOrderIsDeadLettered(long poisonOrder, long healthyOrder) {
+        doThrow(new IllegalStateException("db down")).when(paymentRepository).findByOrderId(poisonOrder);
+        doReturn(Optional.empty()).when(paymentRepository).findByOrderId(healthyOrder);
+        doAnswer(invocation -> invocation.getArgument(0)).when(paymentRepository).save(any(Payment.class));
+        doThrow(new IllegalStateException("batch insert failed")).when(paymentBatchWriter).insertAll(anyList());
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            if (container.isRunning()) {
+                ContainerTestUtils.waitForAssignment(container, 1);
+            }
+        }
+
+        kafkaTemplate.send(OrderEventRetryTopics.MAIN_TOPIC, String.valueOf(poisonOrder), event(poisonOrder));
+        kafkaTemplate.send(OrderEventRetryTopics.MAIN_TOPIC, String.valueOf(healthyOrder), event(healthyOrder));
+
+        // The healthy order behind the poison one is processed without waiting for its retries
+        verify(paymentRepository, timeout(5000)).save(argThat(payment -> payment.getOrderId() == healthyOrder));
+
+        ConsumerRecord<String, OrderEvent> dead = awaitDeadLetter(poisonOrder, Duration.ofSeconds(30));
+        assertNotNull(dead.headers().lastHeader(KafkaHeaders.EXCEPTION_MESSAGE));
+        // kafka.retry.attempts=3: the main topic and two retry topics, which only holds if the
+        // retry consumers read the attempt headers the batch error handler wrote
+        verify(paymentRepository, times(3)).findByOrderId(poisonOrder);
+    }
+
+    private void assertUndecodableRecordIsDeadLettered(long healthyOrder) {
+        doReturn(Optional.empty()).when(paymentRepository).findByOrderId(healthyOrder);
+        doAnswer(invocation -> invocation.getArgument(0)).when(paymentRepository).save(any(Payment.class));
+        doThrow(new IllegalStateException("batch insert failed")).when(paymentBatchWriter).insertAll(anyList());
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            if (container.isRunning()) {
+                ContainerTestUtils.waitForAssignment(container, 1);
+            }
+        }
+
+        byte[] garbage = ("not an order " + healthyOrder).getBytes(StandardCharsets.UTF_8);
+        rawTemplate().send(new ProducerRecord<>(OrderEventRetryTopics.MAIN_TOPIC, "garbage", garbage));
+        kafkaTemplate.send(OrderEventRetryTopics.MAIN_TOPIC, String.valueOf(healthyOrder), event(healthyOrder));
+
+        // The record behind it is not held up, and the undecodable one lands in the DLT as it was sent
+        verify(paymentRepository, timeout(5000)).save(argThat(payment -> payment.getOrderId() == healthyOrder));
+        ConsumerRecord<String, byte[]> dead = awaitRawDeadLetter(garbage, Duration.ofSeconds(30));
+        assertArrayEquals(garbage, dead.value());
+        verify(paymentRepository, never()).findByOrderId(null);
+    }
+
+    private KafkaTemplate<String, byte[]> rawTemplate() {
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(broker),
+            new StringSerializer(), new ByteArraySerializer()));
+    }
+
+    private ConsumerRecord<String, byte[]> awaitRawDeadLetter(byte[] value, Duration timeout) {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("dlt-verifier-" + UUID.randomUUID(), "false", broker);
+        try (Consumer<String, byte[]> consumer = new DefaultKafkaConsumerFactory<String, byte[]>(props,
+                new StringDeserializer(), new ByteArrayDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, OrderEventRetryTopics.DLT_TOPIC);
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(200))) {
+                    if (Arrays.equals(record.value(), value)) {
+                        return record;
+                    }
+                }
+            }
+        }
+        return fail("undecodable record never reached " + OrderEventRetryTopics.DLT_TOPIC);
+    }
+
+    private ConsumerRecord<String, OrderEvent> awaitDeadLetter(long orderId, Duration timeout) {
+        try (Consumer<String, OrderEvent> consumer = dltConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, OrderEventRetryTopics.DLT_TOPIC);
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                for (ConsumerRecord<String, OrderEvent> record : consumer.poll(Duration.ofMillis(200))) {
+                    if (record.value().getOrderId() == orderId) {
+                        return record;
+                    }
+                }
+            }
+        }
+        return fail("order " + orderId + " never reached " + OrderEventRetryTopics.DLT_TOPIC);
+    }
+
+    private Consumer<String, OrderEvent> dltConsumer() {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("dlt-verifier-" + UUID.randomUUID(), "false", broker);
+        return new DefaultKafkaConsumerFactory<String, OrderEvent>(props, new StringDeserializer(),
+            new OrderEventDeserializer()).createConsumer();
+    }
+
+    private static OrderEvent event(Long orderId) {
+        OrderEvent event = new OrderEvent();
+        event.setOrderId(orderId);
+        event.setTotalAmount(10.0);
+        return event;
+    }
+}
@@ -0,0 +1,54 @@
+package mss.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+
+import com.example.events.OrderEvent;
+import com.example.events.OrderEventSerializer;
+
+// Used by the retry-topic machinery and the DLT replay endpoint
+@Configuration
+public class KafkaProducerConfig {
+    
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+    
+    @Value("${kafka.producer.event-format:binary}")
+    private String eventFormat;
+    
+    @Bean
+    public ProducerFactory<String, OrderEvent> producerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(OrderEventSerializer.FORMAT_CONFIG, eventFormat);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), orderEventOrRawBytes());
+    }
+    
+    // A record dead-lettered because it couldn't be deserialized is republished as its original
+    // bytes; everything else is an OrderEvent. The delegates are configured with the map above
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static Serializer<OrderEvent> orderEventOrRawBytes() {
+        return (Serializer) new DelegatingByTypeSerializer(Map.of(
+            OrderEvent.class, new OrderEventSerializer(),
+            byte[].class, new ByteArraySerializer()));
+    }
+    
+    @Bean
+    public KafkaTemplate<String, OrderEvent> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+}
@@ -0,0 +1,27 @@
+package mss.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+import mss.service.ShipmentEventPublisher;
+
+@Configuration
+public class KafkaTopicConfig {
+    
+    @Value("${kafka.topics.shipment-updated.partitions:6}")
+    private int shipmentUpdatedPartitions;
+    
+    @Value("${kafka.topics.shipment-updated.replicas:1}")
+    private int shipmentUpdatedReplicas;
+    
+    @Bean
+    public NewTopic shipmentUpdatedTopic() {
+        return TopicBuilder.name(ShipmentEventPublisher.TOPIC)
+                .partitions(shipmentUpdatedPartitions)
+                .replicas(shipmentUpdatedReplicas)
+                .build();
+    }
+}
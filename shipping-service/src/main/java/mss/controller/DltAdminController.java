@@ -0,0 +1,33 @@
+package mss.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import mss.listener.OrderEventRetryTopics;
+import mss.service.DltReplayService;
+
+@RestController
+@RequestMapping("/api/shipping/admin/dlt")
+public class DltAdminController {
+    private final DltReplayService dltReplayService;
+    
+    public DltAdminController(DltReplayService dltReplayService) {
+        this.dltReplayService = dltReplayService;
+    }
+    
+    @PostMapping("/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> replay(@RequestParam(defaultValue = "100") int max) {
+        int replayed = dltReplayService.replay(max);
+        return ResponseEntity.ok(Map.of(
+            "topic", OrderEventRetryTopics.DLT_TOPIC,
+            "replayedTo", OrderEventRetryTopics.FIRST_RETRY_TOPIC,
+            "replayed", replayed));
+    }
+}
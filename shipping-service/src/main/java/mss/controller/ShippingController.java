@@ -6,8 +6,6 @@ import java.util.stream.Collectors;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,6 +18,10 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
 
 import mss.model.Shipment;
 import mss.service.ShippingService;
@@ -43,13 +45,14 @@ public class ShippingController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<CollectionModel<EntityModel<Shipment>>> getAllShipments() {
+        String base = baseUri();
         List<EntityModel<Shipment>> shipments = shippingService.getAllShipments()
             .stream()
-            .map(this::toModel)
+            .map(shipment -> toModel(shipment, base))
             .collect(Collectors.toList());
         
         CollectionModel<EntityModel<Shipment>> collectionModel = CollectionModel.of(shipments);
-        collectionModel.add(linkTo(methodOn(ShippingController.class).getAllShipments()).withSelfRel());
+        collectionModel.add(Link.of(base + "/api/shipping").withSelfRel());
         
         return ResponseEntity.ok(collectionModel);
     }
@@ -83,10 +86,16 @@ public class ShippingController {
     }
     
     private EntityModel<Shipment> toModel(Shipment shipment) {
+        return toModel(shipment, baseUri());
+    }
+    
+    private EntityModel<Shipment> toModel(Shipment shipment, String baseUri) {
         EntityModel<Shipment> model = EntityModel.of(shipment);
         
-        model.add(linkTo(methodOn(ShippingController.class).getShipment(shipment.getId())).withSelfRel());
-        model.add(linkTo(methodOn(ShippingController.class).getAllShipments()).withRel("shipments"));
+        // Shipment ids are Mongo-generated strings; encoded the way linkTo would
+        model.add(Link.of(baseUri + "/api/shipping/"
+            + UriUtils.encodePathSegment(shipment.getId(), StandardCharsets.UTF_8)).withSelfRel());
+        model.add(Link.of(baseUri + "/api/shipping", "shipments"));
         
         // State-based links
         if ("PROCESSING".equals(shipment.getStatus()) || "PENDING".equals(shipment.getStatus())) {
@@ -98,6 +107,10 @@ public class ShippingController {
         return model;
     }
     
+    private static String baseUri() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+    }
+    
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleException(RuntimeException e) {
         return ResponseEntity.badRequest().body(e.getMessage());
@@ -1,53 +1,164 @@
 package mss.listener;
 
-import mss.events.OrderEvent;
+import com.example.events.OrderEvent;
 import mss.model.Shipment;
+import mss.repository.ShipmentBatchWriter;
 import mss.repository.ShippingRepository;
+import mss.service.ShipmentEventPublisher;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Component
 public class OrderEventListener {
     private static final Logger log = LoggerFactory.getLogger(OrderEventListener.class);
+    private static final LogAccessor deserializationLog = new LogAccessor(OrderEventListener.class);
     private final ShippingRepository shippingRepository;
+    private final ShipmentBatchWriter shipmentBatchWriter;
+    private final ShipmentEventPublisher eventPublisher;
     
-    public OrderEventListener(ShippingRepository shippingRepository) {
+    public OrderEventListener(ShippingRepository shippingRepository, ShipmentBatchWriter shipmentBatchWriter,
+                              ShipmentEventPublisher eventPublisher) {
         this.shippingRepository = shippingRepository;
+        this.shipmentBatchWriter = shipmentBatchWriter;
+        this.eventPublisher = eventPublisher;
     }
     
-    @KafkaListener(topics = "order-created", groupId = "shipping-service-group")
+    // Retried from order-created-shipping-retry-N, then parked in order-created-shipping-dlt
+    @RetryableTopic(
+        attempts = "${kafka.retry.attempts:4}",
+        backoff = @Backoff(delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+                           multiplierExpression = "${kafka.retry.multiplier:2.0}",
+                           maxDelayExpression = "${kafka.retry.max-delay-ms:30000}"),
+        retryTopicSuffix = OrderEventRetryTopics.RETRY_SUFFIX,
+        dltTopicSuffix = OrderEventRetryTopics.DLT_SUFFIX,
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        numPartitions = "${kafka.topics.order-created.partitions:6}",
+        kafkaTemplate = "kafkaTemplate")
+    @KafkaListener(id = OrderEventRetryTopics.LISTENER_ID, topics = OrderEventRetryTopics.MAIN_TOPIC,
+                   groupId = "shipping-service-group",
+                   autoStartup = "#{!${kafka.listener.batch:false}}")
     public void handleOrderCreated(OrderEvent event) {
         log.info("Shipping service received order event: {}", event.getOrderId());
+        createShipment(event);
+    }
+    
+    // Batch mode: one $in lookup and one unordered bulkWrite per poll
+    @KafkaListener(topics = OrderEventRetryTopics.MAIN_TOPIC, groupId = "shipping-service-group",
+                   containerFactory = "batchKafkaListenerContainerFactory",
+                   autoStartup = "${kafka.listener.batch:false}")
+    public void handleOrderCreatedBatch(List<ConsumerRecord<String, OrderEvent>> records) {
+        List<OrderEvent> events = decoded(records);
+        log.info("Shipping service received {} order events", events.size());
         
         try {
-            // Check if shipment already exists
-            if (shippingRepository.findByOrderId(event.getOrderId()).isPresent()) {
-                log.warn("Shipment already exists for order: {}", event.getOrderId());
-                return;
+            Map<Long, OrderEvent> byOrderId = new LinkedHashMap<>();
+            for (OrderEvent event : events) {
+                byOrderId.putIfAbsent(event.getOrderId(), event);
             }
             
-            // Create shipment
-            Shipment shipment = new Shipment();
-            shipment.setOrderId(event.getOrderId());
-            shipment.setTrackingNumber("TRK-" + UUID.randomUUID().toString().substring(0, 10).toUpperCase());
-            shipment.setStatus("PROCESSING");
-            shipment.setCarrier("FastShip Express");
-            shipment.setAddress("Customer Address (from customer service)");
-            shipment.setShippedDate(LocalDateTime.now());
-            shipment.setEstimatedDelivery(LocalDateTime.now().plusDays(3));
+            List<Shipment> existing = shippingRepository.findByOrderIdIn(byOrderId.keySet());
+            existing.forEach(shipment -> byOrderId.remove(shipment.getOrderId()));
+            
+            List<Shipment> shipments = byOrderId.values().stream()
+                .map(this::newShipment)
+                .toList();
+            shipmentBatchWriter.insertAll(shipments);
             
-            shipment = shippingRepository.save(shipment);
+            // Existing shipments are announced again in case an earlier attempt stopped between
+            // the insert and the publish; order-service ignores updates it has already applied
+            List<Shipment> created = new ArrayList<>(existing);
+            created.addAll(shipments);
+            eventPublisher.publish(created);
             
-            log.info("Shipment created successfully: {} for order: {} with tracking: {}", 
-                    shipment.getId(), event.getOrderId(), shipment.getTrackingNumber());
+            log.info("Shipments created successfully for {} orders ({} skipped as duplicates)", 
+                    shipments.size(), events.size() - shipments.size());
             
         } catch (Exception e) {
-            log.error("Error creating shipment for order {}: {}", event.getOrderId(), e.getMessage(), e);
+            log.warn("Shipment batch of {} events failed, retrying them one by one: {}", 
+                    events.size(), e.getMessage());
+            createIndividually(events);
+        }
+    }
+    
+    // ErrorHandlingDeserializer leaves undecodable records in the batch with a null value; failing
+    // on the first one hands it to the DLT and redelivers the records after it
+    private static List<OrderEvent> decoded(List<ConsumerRecord<String, OrderEvent>> records) {
+        List<OrderEvent> events = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            DeserializationException failure = SerializationUtils.getExceptionFromHeader(records.get(i),
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, deserializationLog);
+            if (failure != null) {
+                throw new BatchListenerFailedException("Undecodable order event at offset "
+                    + records.get(i).offset(), failure, i);
+            }
+            events.add(records.get(i).value());
+        }
+        return events;
+    }
+    
+    @DltHandler
+    public void handleDeadLetter(OrderEvent event,
+                                 @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+        log.error("No shipment created for order {}, event parked in {}: {}", 
+                event.getOrderId(), OrderEventRetryTopics.DLT_TOPIC, error);
+    }
+    
+    // The index in BatchListenerFailedException tells the error handler which record to forward
+    private void createIndividually(List<OrderEvent> events) {
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                createShipment(events.get(i));
+            } catch (Exception e) {
+                throw new BatchListenerFailedException("Shipment failed for order " + events.get(i).getOrderId(), e, i);
+            }
+        }
+    }
+    
+    private void createShipment(OrderEvent event) {
+        // Check if shipment already exists
+        var existing = shippingRepository.findByOrderId(event.getOrderId());
+        if (existing.isPresent()) {
+            log.warn("Shipment already exists for order: {}", event.getOrderId());
+            eventPublisher.publish(List.of(existing.get()));
+            return;
         }
+        
+        Shipment shipment = shippingRepository.save(newShipment(event));
+        eventPublisher.publish(List.of(shipment));
+        
+        log.info("Shipment created successfully: {} for order: {} with tracking: {}", 
+                shipment.getId(), event.getOrderId(), shipment.getTrackingNumber());
+    }
+    
+    private Shipment newShipment(OrderEvent event) {
+        Shipment shipment = new Shipment();
+        shipment.setOrderId(event.getOrderId());
+        shipment.setTrackingNumber("TRK-" + UUID.randomUUID().toString().substring(0, 10).toUpperCase());
+        shipment.setStatus("PROCESSING");
+        shipment.setCarrier("FastShip Express");
+        shipment.setAddress("Customer Address (from customer service)");
+        shipment.setShippedDate(LocalDateTime.now());
+        shipment.setEstimatedDelivery(LocalDateTime.now().plusDays(3));
+        return shipment;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package mss.listener;
+
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retry and dead-letter topics for shipment creation. Scoped to shipping so a retried
+ * order-created record is never seen again by the payment or notification consumers.
+ */
+@Component
+public class OrderEventRetryTopics {
+    public static final String MAIN_TOPIC = "order-created";
+    public static final String LISTENER_ID = "shipping-order-created";
+    public static final String RETRY_SUFFIX = "-shipping-retry";
+    public static final String DLT_SUFFIX = "-shipping-dlt";
+    public static final String FIRST_RETRY_TOPIC = MAIN_TOPIC + RETRY_SUFFIX + "-0";
+    public static final String DLT_TOPIC = MAIN_TOPIC + DLT_SUFFIX;
+    
+    private final KafkaListenerEndpointRegistry registry;
+    private final boolean batchMode;
+    
+    public OrderEventRetryTopics(KafkaListenerEndpointRegistry registry,
+                                 @Value("${kafka.listener.batch:false}") boolean batchMode) {
+        this.registry = registry;
+        this.batchMode = batchMode;
+    }
+    
+    // The batch listener forwards failures to the retry topics, whose containers belong to
+    // the (stopped) record endpoint and are started here instead
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRetryContainersInBatchMode() {
+        if (!batchMode) {
+            return;
+        }
+        Collection<MessageListenerContainer> containers = registry.getListenerContainers();
+        for (MessageListenerContainer container : containers) {
+            String id = container.getListenerId();
+            if (id != null && id.startsWith(LISTENER_ID + "-") && !container.isRunning()) {
+                container.start();
+            }
+        }
+    }
+}
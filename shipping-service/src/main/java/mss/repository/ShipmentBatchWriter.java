@@ -0,0 +1,27 @@
+package mss.repository;
+
+import mss.model.Shipment;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class ShipmentBatchWriter {
+    private final MongoTemplate mongoTemplate;
+    
+    public ShipmentBatchWriter(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    // Single bulkWrite round trip; unordered so the server can apply inserts in parallel
+    public void insertAll(List<Shipment> shipments) {
+        if (shipments.isEmpty()) {
+            return;
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Shipment.class)
+            .insert(shipments)
+            .execute();
+    }
+}
@@ -4,9 +4,12 @@ import mss.model.Shipment;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ShippingRepository extends MongoRepository<Shipment, String> {
     Optional<Shipment> findByOrderId(Long orderId);
-}
\ No newline at end of file
+    List<Shipment> findByOrderIdIn(Collection<Long> orderIds);
+}
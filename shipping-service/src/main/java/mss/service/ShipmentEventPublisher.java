@@ -0,0 +1,49 @@
+package mss.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.events.OrderEvent;
+import mss.model.Shipment;
+
+/**
+ * Publishes shipment status on shipment-updated, keyed by order id. Creation is published as the
+ * first update, so created and later updates of one order share a partition and stay in order.
+ */
+@Component
+public class ShipmentEventPublisher {
+    public static final String TOPIC = "shipment-updated";
+
+    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final Duration sendTimeout;
+
+    public ShipmentEventPublisher(KafkaTemplate<String, OrderEvent> kafkaTemplate,
+                                  @Value("${kafka.producer.send-timeout:10s}") Duration sendTimeout) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.sendTimeout = sendTimeout;
+    }
+
+    // Blocks until acknowledged so callers fail (and are retried) rather than lose an update
+    public void publish(Collection<Shipment> shipments) {
+        CompletableFuture<?>[] sends = shipments.stream()
+            .map(shipment -> kafkaTemplate.send(TOPIC, String.valueOf(shipment.getOrderId()),
+                new OrderEvent(shipment.getOrderId(), null, null, null, null, shipment.getStatus())))
+            .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while publishing shipment updates", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Could not publish " + sends.length + " shipment updates", e);
+        }
+    }
+}
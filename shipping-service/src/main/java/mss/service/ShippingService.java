@@ -5,17 +5,22 @@ import mss.repository.ShippingRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class ShippingService {
     private final ShippingRepository shippingRepository;
+    private final ShipmentEventPublisher eventPublisher;
     
-    public ShippingService(ShippingRepository shippingRepository) {
+    public ShippingService(ShippingRepository shippingRepository, ShipmentEventPublisher eventPublisher) {
         this.shippingRepository = shippingRepository;
+        this.eventPublisher = eventPublisher;
     }
     
     public Shipment createShipment(Shipment shipment) {
-        return shippingRepository.save(shipment);
+        Shipment created = shippingRepository.save(shipment);
+        eventPublisher.publish(List.of(created));
+        return created;
     }
     
     public Shipment getShipment(String id) {
@@ -29,9 +34,15 @@ public class ShippingService {
     
     public Shipment updateShipment(String id, Shipment shipment) {
         Shipment existing = getShipment(id);
+        boolean statusChanged = !Objects.equals(existing.getStatus(), shipment.getStatus());
         existing.setStatus(shipment.getStatus());
         existing.setAddress(shipment.getAddress());
-        return shippingRepository.save(existing);
+        Shipment saved = shippingRepository.save(existing);
+        // Drives the order through SHIPPING, SHIPPED and DELIVERED in order-service
+        if (statusChanged) {
+            eventPublisher.publish(List.of(saved));
+        }
+        return saved;
     }
     
     public void deleteShipment(String id) {